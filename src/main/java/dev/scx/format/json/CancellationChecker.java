@@ -0,0 +1,69 @@
+package dev.scx.format.json;
+
+import java.time.Duration;
+
+/// 在解析和序列化的循环中 每处理 [#CHECK_INTERVAL] 个 token 或节点检查一次超时和取消 (计数递减, 开销可以忽略).
+///
+/// 每次转换 (一次顶层调用) 创建一个 (非线程安全), 并传给该调用中的所有步骤. [JsonNodeConvertOptions#timeout(Duration)] 从创建时开始计时.
+/// 其他线程通过 [#fork()] 共享同一截止时间.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class CancellationChecker {
+
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final JsonCancellationToken _token;
+    private final long _deadline;
+    private final boolean _hasDeadline;
+    private int _countdown;
+
+    private CancellationChecker(JsonCancellationToken token, boolean hasDeadline, long deadline) {
+        this._token = token;
+        this._hasDeadline = hasDeadline;
+        this._deadline = deadline;
+        this._countdown = CHECK_INTERVAL;
+    }
+
+    /// 未设置超时和取消令牌时返回 null
+    public static CancellationChecker of(JsonNodeConvertOptions options) {
+        return of(options.cancellationToken(), options.timeout());
+    }
+
+    /// 未设置超时和取消令牌时返回 null
+    public static CancellationChecker of(JsonCancellationToken token, Duration timeout) {
+        if (token == null && timeout == null) {
+            return null;
+        }
+        var hasDeadline = timeout != null;
+        return new CancellationChecker(token, hasDeadline, hasDeadline ? System.nanoTime() + timeout.toNanos() : 0);
+    }
+
+    /// 令牌和截止时间相同, 计数独立 (供其他线程使用)
+    public CancellationChecker fork() {
+        return new CancellationChecker(_token, _hasDeadline, _deadline);
+    }
+
+    public void check() throws JsonCancellationException {
+        if (--_countdown > 0) {
+            return;
+        }
+        _countdown = CHECK_INTERVAL;
+        checkNow();
+    }
+
+    public void checkNow() throws JsonCancellationException {
+        if (_token != null) {
+            if (_token.isCancelled()) {
+                throw new JsonCancellationException(false);
+            }
+            if (_token.isTimedOut()) {
+                throw new JsonCancellationException(true);
+            }
+        }
+        if (_hasDeadline && System.nanoTime() - _deadline >= 0) {
+            throw new JsonCancellationException(true);
+        }
+    }
+
+}
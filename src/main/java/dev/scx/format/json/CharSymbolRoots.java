@@ -0,0 +1,38 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.TokenStreamFactory;
+import tools.jackson.core.sym.CharsToNameCanonicalizer;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/// 共享的字符符号表根 (用于 String / Reader / char[] 输入).
+///
+/// 根会记录创建时的 maxNameLength 和 factoryFeatures, 因此按这两项分别缓存.
+/// 不同组合的数量超过上限时 不再缓存, 退化为每次创建新的根.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class CharSymbolRoots {
+
+    private static final int MAX_ROOTS = 16;
+
+    private final ConcurrentHashMap<Long, CharsToNameCanonicalizer> _roots;
+
+    public CharSymbolRoots() {
+        this._roots = new ConcurrentHashMap<>();
+    }
+
+    /// 只会读取 factory 的 streamReadConstraints 和 factoryFeatures, 因此可以在 factory 的构造函数中调用
+    public CharsToNameCanonicalizer root(TokenStreamFactory factory) {
+        var key = (long) factory.streamReadConstraints().getMaxNameLength() << 32 | factory.getFactoryFeatures() & 0xFFFFFFFFL;
+        var root = _roots.get(key);
+        if (root != null) {
+            return root;
+        }
+        if (_roots.size() >= MAX_ROOTS) {
+            return CharsToNameCanonicalizer.createRoot(factory);
+        }
+        return _roots.computeIfAbsent(key, _ -> CharsToNameCanonicalizer.createRoot(factory));
+    }
+
+}
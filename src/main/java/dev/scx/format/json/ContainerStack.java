@@ -39,6 +39,14 @@ final class ContainerStack {
         _stack[_top++] = node;
     }
 
+    /// 复用前清空, 避免持有上一次的节点
+    public void clear() {
+        if (_stack != null) {
+            Arrays.fill(_stack, 0, _end, null);
+        }
+        _top = 0;
+    }
+
     public ContainerNode popOrNull() {
         if (_top == 0) {
             return null;
@@ -0,0 +1,18 @@
+package dev.scx.format.json;
+
+/// 浮点数字面量策略
+///
+/// @author scx567888
+/// @version 0.0.1
+public enum FloatLiteralPolicy {
+
+    /// 始终为 DoubleNode (超出范围时为 Infinity, 超出精度时会舍入)
+    DOUBLE,
+
+    /// 始终为 BigDecimalNode (NaN 和 Infinity 除外)
+    BIG_DECIMAL,
+
+    /// 能精确往返的最小类型: FloatNode, DoubleNode 或 BigDecimalNode
+    EXACT
+
+}
@@ -0,0 +1,66 @@
+package dev.scx.format.json;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/// Inflater/Deflater 池 (二者持有 native 的压缩窗口和状态, 创建和销毁的成本都很高).
+/// 池已满时 归还的对象会被直接销毁. 使用无锁队列, 避免大量线程争用同一把锁.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class GzipPool {
+
+    private final int _capacity;
+    private final ConcurrentLinkedQueue<Inflater> _inflaters;
+    private final ConcurrentLinkedQueue<Deflater> _deflaters;
+    private final AtomicInteger _inflaterCount;
+    private final AtomicInteger _deflaterCount;
+
+    public GzipPool(int capacity) {
+        this._capacity = capacity;
+        this._inflaters = new ConcurrentLinkedQueue<>();
+        this._deflaters = new ConcurrentLinkedQueue<>();
+        this._inflaterCount = new AtomicInteger();
+        this._deflaterCount = new AtomicInteger();
+    }
+
+    public Inflater acquireInflater() {
+        var inflater = _inflaters.poll();
+        if (inflater != null) {
+            _inflaterCount.decrementAndGet();
+        }
+        // gzip 使用 nowrap 模式, 头部和尾部由我们自己处理
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    public void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (_inflaterCount.incrementAndGet() <= _capacity) {
+            _inflaters.offer(inflater);
+        } else {
+            _inflaterCount.decrementAndGet();
+            inflater.end();
+        }
+    }
+
+    public Deflater acquireDeflater() {
+        var deflater = _deflaters.poll();
+        if (deflater != null) {
+            _deflaterCount.decrementAndGet();
+        }
+        return deflater != null ? deflater : new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    public void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (_deflaterCount.incrementAndGet() <= _capacity) {
+            _deflaters.offer(deflater);
+        } else {
+            _deflaterCount.decrementAndGet();
+            deflater.end();
+        }
+    }
+
+}
@@ -1,8 +1,12 @@
 package dev.scx.format.json;
 
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
 import tools.jackson.core.StreamReadFeature;
 import tools.jackson.core.StreamWriteFeature;
 import tools.jackson.core.TokenStreamFactory;
+import tools.jackson.core.exc.StreamReadException;
 import tools.jackson.core.json.JsonReadFeature;
 import tools.jackson.core.json.JsonWriteFeature;
 
@@ -82,4 +86,30 @@ final class JacksonHelper {
         return state ? enable(f, features) : disable(f, features);
     }
 
+    /// 同 [JsonGenerator#copyCurrentStructureExact(JsonParser)], 但逐个 token 复制, 期间检查超时和取消 (checker 为 null 时直接委托)
+    public static void copyCurrentStructureExact(JsonParser p, JsonGenerator g, CancellationChecker checker) throws JacksonException {
+        if (checker == null) {
+            g.copyCurrentStructureExact(p);
+            return;
+        }
+        var depth = 0;
+        var t = p.currentToken();
+        while (true) {
+            checker.check();
+            g.copyCurrentEventExact(p);
+            if (t.isStructStart()) {
+                depth++;
+            } else if (t.isStructEnd()) {
+                depth--;
+            }
+            if (depth == 0) {
+                return;
+            }
+            t = p.nextToken();
+            if (t == null) { // unexpected end-of-input
+                throw new StreamReadException(p, "Unexpected end-of-input");
+            }
+        }
+    }
+
 }
@@ -0,0 +1,15 @@
+package dev.scx.format.json;
+
+/// 批量转换中单个条目的结果, value 和 error 有且只有一个不为 null
+///
+/// @param value 转换结果
+/// @param error 转换失败时的异常 (FormatToNodeException 或 NodeToFormatException)
+/// @author scx567888
+/// @version 0.0.1
+public record JsonBatchResult<T>(T value, Exception error) {
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+}
@@ -0,0 +1,79 @@
+package dev.scx.format.json;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/// 批量转换. 输入按块切分, 每块由一个任务使用独立的 [JsonNodeConvertSession] 依次处理, 结果按下标写回, 因此与输入顺序一致.
+///
+/// 单个条目的转换异常记录在其结果中, 不影响其他条目.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonBatchRunner {
+
+    /// 每块的最少条目数, 用于摊销会话的创建开销
+    private static final int MIN_CHUNK_SIZE = 16;
+    /// 每个工作线程大约分到的块数, 便于 work-stealing 平衡负载
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /// @param executor 为 null 时在调用线程上执行
+    public static <I, O> List<JsonBatchResult<O>> run(List<I> items, Executor executor, Supplier<JsonNodeConvertSession> sessionFactory, ItemTask<I, O> task) {
+        var input = items instanceof RandomAccess ? items : new ArrayList<>(items);
+        var size = input.size();
+        @SuppressWarnings("unchecked")
+        var results = (JsonBatchResult<O>[]) new JsonBatchResult[size];
+        if (executor == null || size <= MIN_CHUNK_SIZE) {
+            _runChunk(input, 0, size, results, sessionFactory, task);
+            return List.of(results);
+        }
+        var parallelism = executor instanceof ForkJoinPool pool ? pool.getParallelism() : Runtime.getRuntime().availableProcessors();
+        var chunkSize = Math.max(MIN_CHUNK_SIZE, Math.ceilDiv(size, parallelism * CHUNKS_PER_WORKER));
+        var futures = new CompletableFuture<?>[Math.ceilDiv(size, chunkSize)];
+        for (int i = 0; i < futures.length; i++) {
+            var start = i * chunkSize;
+            var end = Math.min(start + chunkSize, size);
+            futures[i] = CompletableFuture.runAsync(() -> _runChunk(input, start, end, results, sessionFactory, task), executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            // 条目的转换异常已被记录, 此处只会是意外的运行时异常
+            if (e.getCause() instanceof RuntimeException c) {
+                throw c;
+            }
+            if (e.getCause() instanceof Error c) {
+                throw c;
+            }
+            throw e;
+        }
+        return List.of(results);
+    }
+
+    private static <I, O> void _runChunk(List<I> items, int start, int end, JsonBatchResult<O>[] results, Supplier<JsonNodeConvertSession> sessionFactory, ItemTask<I, O> task) {
+        // 在执行线程上创建会话, 使其使用该线程的符号表分段
+        var session = sessionFactory.get();
+        for (int i = start; i < end; i++) {
+            try {
+                results[i] = new JsonBatchResult<>(task.apply(session, items.get(i)), null);
+            } catch (FormatToNodeException | NodeToFormatException e) {
+                results[i] = new JsonBatchResult<>(null, e);
+            }
+        }
+    }
+
+    interface ItemTask<I, O> {
+
+        O apply(JsonNodeConvertSession session, I item) throws FormatToNodeException, NodeToFormatException;
+
+    }
+
+}
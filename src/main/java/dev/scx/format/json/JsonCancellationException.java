@@ -0,0 +1,23 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.JacksonException;
+
+/// 转换因超时或被取消而中止. 会被包装为 FormatToNodeException 或 NodeToFormatException 的 cause 抛出.
+///
+/// @author scx567888
+/// @version 0.0.1
+public final class JsonCancellationException extends JacksonException {
+
+    private final boolean _timedOut;
+
+    JsonCancellationException(boolean timedOut) {
+        super(timedOut ? "转换超时" : "转换已取消");
+        this._timedOut = timedOut;
+    }
+
+    /// true 表示超时, false 表示被取消
+    public boolean timedOut() {
+        return _timedOut;
+    }
+
+}
@@ -0,0 +1,45 @@
+package dev.scx.format.json;
+
+import java.time.Duration;
+
+/// 取消令牌, 可由其他线程调用 [#cancel()] 取消, 也可以带一个截止时间. 通过 [JsonNodeConvertOptions#cancellationToken(JsonCancellationToken)] 传入.
+///
+/// 一个令牌通常对应一个请求, 可用于该请求内的多次转换.
+///
+/// @author scx567888
+/// @version 0.0.1
+public final class JsonCancellationToken {
+
+    private final long _deadline;
+    private final boolean _hasDeadline;
+    private volatile boolean _cancelled;
+
+    /// 无截止时间, 只能手动取消
+    public JsonCancellationToken() {
+        this._deadline = 0;
+        this._hasDeadline = false;
+    }
+
+    private JsonCancellationToken(long deadline) {
+        this._deadline = deadline;
+        this._hasDeadline = true;
+    }
+
+    /// 从现在起 timeout 后超时
+    public static JsonCancellationToken ofTimeout(Duration timeout) {
+        return new JsonCancellationToken(System.nanoTime() + timeout.toNanos());
+    }
+
+    public void cancel() {
+        _cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return _cancelled;
+    }
+
+    public boolean isTimedOut() {
+        return _hasDeadline && System.nanoTime() - _deadline >= 0;
+    }
+
+}
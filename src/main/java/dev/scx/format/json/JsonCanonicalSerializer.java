@@ -0,0 +1,166 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.exc.StreamWriteException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/// ### 关于规范化序列化 (RFC 8785)
+/// - 字段按 UTF-16 码元顺序排序 (即 [String#compareTo(String)]).
+/// - 所有数字均视为 IEEE-754 double, 按 ECMAScript `Number.prototype.toString` 的规则输出,
+///   因此超出 double 精度的 Long/BigInteger/BigDecimal 会丢失精度, NaN 和 Infinity 不被允许.
+/// - 字符串转义由 generator 负责, 参见 [JsonNodeConvertOptions#canonical(boolean)].
+///
+/// 和 [JsonSerializer] 一样基于递归下降.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonCanonicalSerializer {
+
+    /// 2^53, 在此范围内的整数可以被 double 精确表示
+    private static final long MAX_SAFE_INTEGER = 9007199254740992L;
+
+    public static void serialize(JsonGenerator g, Node node) throws JacksonException {
+        serialize(g, node, null);
+    }
+
+    /// @param checker 超时/取消检查, 可以为 null
+    public static void serialize(JsonGenerator g, Node node, CancellationChecker checker) throws JacksonException {
+        if (checker != null) {
+            checker.check();
+        }
+        switch (node) {
+            case ObjectNode objectNode -> {
+                var names = new String[objectNode.size()];
+                var i = 0;
+                for (var field : objectNode) {
+                    names[i++] = field.getKey();
+                }
+                Arrays.sort(names);
+                g.writeStartObject(objectNode, names.length);
+                for (var name : names) {
+                    g.writeName(name);
+                    serialize(g, objectNode.get(name), checker);
+                }
+                g.writeEndObject();
+            }
+            case ArrayNode arrayNode -> {
+                g.writeStartArray(arrayNode, arrayNode.size());
+                for (var element : arrayNode) {
+                    serialize(g, element, checker);
+                }
+                g.writeEndArray();
+            }
+            case StringNode stringNode -> g.writeString(stringNode.value());
+            case IntNode intNode -> g.writeNumber(intNode.value());
+            case LongNode longNode -> {
+                var value = longNode.value();
+                if (value >= -MAX_SAFE_INTEGER && value <= MAX_SAFE_INTEGER) {
+                    g.writeNumber(value);
+                } else {
+                    _writeDouble(g, value);
+                }
+            }
+            case FloatNode floatNode -> _writeDouble(g, floatNode.value());
+            case DoubleNode doubleNode -> _writeDouble(g, doubleNode.value());
+            case BigIntegerNode bigIntegerNode -> _writeDouble(g, bigIntegerNode.value().doubleValue());
+            case BigDecimalNode bigDecimalNode -> _writeDouble(g, bigDecimalNode.value().doubleValue());
+            case BooleanNode booleanNode -> g.writeBoolean(booleanNode.value());
+            case NullNode _ -> g.writeNull();
+        }
+    }
+
+    private static void _writeDouble(JsonGenerator g, double value) throws JacksonException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new StreamWriteException(g, "RFC 8785 不允许 NaN 或 Infinity: " + value);
+        }
+        g.writeNumber(toEcmaScriptString(value));
+    }
+
+    /// ECMAScript `Number.prototype.toString` (ECMA-262 7.1.12.1)
+    public static String toEcmaScriptString(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("RFC 8785 不允许 NaN 或 Infinity");
+        }
+        if (value == 0) {
+            return "0"; // 包括 -0
+        }
+        var abs = Math.abs(value);
+        // JDK 19+ 的 Double.toString 给出的是最短的可往返表示
+        var s = Double.toString(abs);
+        var e = s.indexOf('E');
+        var mantissa = e < 0 ? s : s.substring(0, e);
+        var exponent = e < 0 ? 0 : Integer.parseInt(s.substring(e + 1));
+        var dot = mantissa.indexOf('.');
+        var digits = new StringBuilder(mantissa.length()).append(mantissa, 0, dot).append(mantissa, dot + 1, mantissa.length());
+        // n 表示 value = 0.digits * 10^n
+        var n = dot + exponent;
+        while (digits.charAt(0) == '0') {
+            digits.deleteCharAt(0);
+            n--;
+        }
+        while (digits.charAt(digits.length() - 1) == '0') {
+            digits.setLength(digits.length() - 1);
+        }
+        // Double.toString 至少输出两位有效数字, 而 ECMAScript 要求最少的位数
+        if (digits.length() == 2) {
+            var shorter = _shorterDigit(abs, digits, n);
+            if (shorter != 0) {
+                digits.setLength(0);
+                if (shorter == 10) {
+                    digits.append('1');
+                    n++;
+                } else {
+                    digits.append((char) ('0' + shorter));
+                }
+            }
+        }
+        var k = digits.length();
+        var sb = new StringBuilder(k + 8);
+        if (value < 0) {
+            sb.append('-');
+        }
+        if (k <= n && n <= 21) {
+            sb.append(digits);
+            sb.repeat('0', n - k);
+        } else if (0 < n && n <= 21) {
+            sb.append(digits, 0, n).append('.').append(digits, n, k);
+        } else if (-6 < n && n <= 0) {
+            sb.append("0.");
+            sb.repeat('0', -n);
+            sb.append(digits);
+        } else {
+            sb.append(digits.charAt(0));
+            if (k > 1) {
+                sb.append('.').append(digits, 1, k);
+            }
+            var exp = n - 1;
+            sb.append('e').append(exp < 0 ? '-' : '+').append(Math.abs(exp));
+        }
+        return sb.toString();
+    }
+
+    /// 尝试找到一位有效数字的可往返表示 (取最接近的), 找不到时返回 0, 进位时返回 10
+    private static int _shorterDigit(double abs, StringBuilder digits, int n) {
+        var first = digits.charAt(0) - '0';
+        var exact = new BigDecimal(abs);
+        var best = 0;
+        BigDecimal bestDistance = null;
+        for (var candidate = first; candidate <= first + 1; candidate++) {
+            var decimal = BigDecimal.valueOf(candidate).scaleByPowerOfTen(n - 1);
+            if (decimal.doubleValue() != abs) {
+                continue;
+            }
+            var distance = decimal.subtract(exact).abs();
+            if (bestDistance == null || distance.compareTo(bestDistance) < 0) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+}
@@ -4,8 +4,16 @@ import dev.scx.node.*;
 import tools.jackson.core.JacksonException;
 import tools.jackson.core.JsonParser;
 import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.JacksonIOException;
 import tools.jackson.core.exc.StreamReadException;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Set;
+
+import static dev.scx.format.json.NodeHelper.ENTRY_BYTES;
+import static dev.scx.format.json.NodeHelper.SLOT_BYTES;
 import static dev.scx.node.BooleanNode.FALSE;
 import static dev.scx.node.BooleanNode.TRUE;
 import static dev.scx.node.NullNode.NULL;
@@ -17,34 +25,100 @@ import static dev.scx.node.NullNode.NULL;
 final class JsonDeserializer {
 
     private final DuplicateFieldPolicy _duplicateFieldPolicy;
+    private final FloatLiteralPolicy _floatLiteralPolicy;
+    // 可在多次调用之间复用 (非线程安全)
+    private final ContainerStack _stack;
+    private final JsonStringSink _stringSink;
+    private final int _stringSinkThreshold;
+    private final Set<String> _stringSinkPaths;
+    private final long _maxNodeCount;
+    private final int _maxObjectEntries;
+    private final int _maxArrayLength;
+    private final long _maxRetainedBytes;
+    // 未设置任何限制时 跳过统计
+    private final boolean _limited;
+    private final JsonCancellationToken _cancellationToken;
+    private final Duration _timeout;
+    // 未开启去重时为 null
+    private final SubtreeInterner _interner;
+    // 当前文档的超时/取消检查 (未设置时为 null)
+    private CancellationChecker _checker;
+    // 当前文档的统计
+    private long _nodeCount;
+    private long _retainedBytes;
 
     public JsonDeserializer(JsonNodeConvertOptions options) {
+        this(options, options.internSubtrees());
+    }
+
+    /// 需要原地修改解析结果的内部路径 (如 [JsonPatcher], [JsonRewriter]) 必须关闭 internSubtrees, 否则会修改到共享的节点
+    public JsonDeserializer(JsonNodeConvertOptions options, boolean internSubtrees) {
         this._duplicateFieldPolicy = options.duplicateFieldPolicy();
+        this._floatLiteralPolicy = options.floatLiteralPolicy();
+        this._stack = new ContainerStack();
+        this._stringSink = options.stringSink();
+        this._stringSinkThreshold = options.stringSinkThreshold();
+        this._stringSinkPaths = options.stringSinkPaths();
+        this._maxNodeCount = options.maxNodeCount();
+        this._maxObjectEntries = options.maxObjectEntries();
+        this._maxArrayLength = options.maxArrayLength();
+        this._maxRetainedBytes = options.maxRetainedBytes();
+        this._limited = _maxNodeCount != Long.MAX_VALUE || _maxObjectEntries != Integer.MAX_VALUE ||
+            _maxArrayLength != Integer.MAX_VALUE || _maxRetainedBytes != Long.MAX_VALUE;
+        this._cancellationToken = options.cancellationToken();
+        this._timeout = options.timeout();
+        // MERGE 会向已经完成的数组追加元素, 不能共享
+        this._interner = internSubtrees && _duplicateFieldPolicy != DuplicateFieldPolicy.MERGE ? new SubtreeInterner() : null;
     }
 
+    /// 解析整个文档, 超时从此时开始计时
     public Node deserialize(JsonParser p) throws JacksonException {
+        return deserialize(p, CancellationChecker.of(_cancellationToken, _timeout));
+    }
+
+    /// 解析整个文档, checker 由调用方创建 (一次调用中解析多个文档时 共享同一截止时间), 可以为 null
+    public Node deserialize(JsonParser p, CancellationChecker checker) throws JacksonException {
         var firstToken = p.nextToken();
         if (firstToken == null) {
-            throw new StreamReadException(p, "未检测到任何有效内容");
+            throw StacklessReadException.of(p, JsonParseErrorKind.UNEXPECTED_EOF, "未检测到任何有效内容");
         }
 
-        var resultNode = _deserialize(p);
+        var resultNode = _deserialize(p, checker);
 
         var tailToken = p.nextToken();
         if (tailToken != null) {
-            throw new StreamReadException(p, "检测到多余内容");
+            throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "检测到多余内容");
         }
         return resultNode;
     }
 
-    private Node _deserialize(JsonParser p) {
-        var stack = new ContainerStack();
+    /// 反序列化 parser 当前所在的值 (不校验首尾). checker 由调用方创建, 以便整个调用 (包括值之间的流式复制) 共享同一截止时间
+    public Node deserializeValue(JsonParser p, CancellationChecker checker) throws JacksonException {
+        return _deserialize(p, checker);
+    }
+
+    private Node _deserialize(JsonParser p, CancellationChecker checker) {
+        var stack = _stack;
         var currentToken = p.currentToken();
-        return switch (currentToken) {
-            case START_OBJECT -> _deserializeContainerNoRecursion(p, stack, new ObjectNode());
-            case START_ARRAY -> _deserializeContainerNoRecursion(p, stack, new ArrayNode());
-            default -> _deserializeAnyScalar(p);
-        };
+        _nodeCount = 0;
+        _retainedBytes = 0;
+        _checker = checker;
+        if (_checker != null) {
+            _checker.checkNow();
+        }
+        if (_interner != null) {
+            _interner.reset();
+        }
+        try {
+            return switch (currentToken) {
+                case START_OBJECT -> _deserializeContainerNoRecursion(p, stack, _account(p, new ObjectNode(), 0));
+                case START_ARRAY -> _deserializeContainerNoRecursion(p, stack, _account(p, new ArrayNode(), 0));
+                default -> _account(p, _deserializeAnyScalar(p), 0);
+            };
+        } finally {
+            stack.clear();
+            _checker = null;
+        }
     }
 
     // Non-recursive alternative
@@ -58,6 +132,9 @@ final class JsonDeserializer {
 
                     objectLoop:
                     while (true) {
+                        if (_checker != null) {
+                            _checker.check();
+                        }
                         var propName = p.nextName();
                         if (propName == null) {
                             break objectLoop;
@@ -69,21 +146,23 @@ final class JsonDeserializer {
                         }
                         switch (t) {
                             case START_OBJECT -> {
-                                ObjectNode newOb = new ObjectNode();
+                                ObjectNode newOb = _account(p, new ObjectNode(), ENTRY_BYTES);
                                 Node old = currObject.put(propName, newOb);
                                 if (old != null) {
                                     _handleDuplicateProperty(p, propName, currObject, old, newOb);
                                 }
+                                _checkObjectEntries(p, currObject);
                                 stack.push(curr);
                                 curr = newOb;
                                 continue outer_loop;
                             }
                             case START_ARRAY -> {
-                                ArrayNode newOb = new ArrayNode();
+                                ArrayNode newOb = _account(p, new ArrayNode(), ENTRY_BYTES);
                                 Node old = currObject.put(propName, newOb);
                                 if (old != null) {
                                     _handleDuplicateProperty(p, propName, currObject, old, newOb);
                                 }
+                                _checkObjectEntries(p, currObject);
                                 stack.push(curr);
                                 curr = newOb;
                                 continue outer_loop;
@@ -92,20 +171,22 @@ final class JsonDeserializer {
                                 break objectLoop;
                             }
                             case END_ARRAY -> {
-                                throw new StreamReadException(p, "Unexpected token: " + t);
+                                throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "Unexpected token: " + t);
                             }
-                            case VALUE_STRING -> value = new StringNode(p.getString());
+                            case VALUE_STRING -> value = _fromString(p);
                             case VALUE_NUMBER_INT -> value = _fromInt(p);
                             case VALUE_NUMBER_FLOAT -> value = _fromFloat(p);
                             case VALUE_TRUE -> value = TRUE;
                             case VALUE_FALSE -> value = FALSE;
                             case VALUE_NULL -> value = NULL;
-                            default -> throw new StreamReadException(p, "Unexpected token: " + t);
+                            default -> throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "Unexpected token: " + t);
                         }
+                        _account(p, value, ENTRY_BYTES);
                         Node old = currObject.put(propName, value);
                         if (old != null) {
                             _handleDuplicateProperty(p, propName, currObject, old, value);
                         }
+                        _checkObjectEntries(p, currObject);
                     }
                     // reached not-property-name, should be END_OBJECT (verify?)
                 }
@@ -113,6 +194,9 @@ final class JsonDeserializer {
 
                     arrayLoop:
                     while (true) {
+                        if (_checker != null) {
+                            _checker.check();
+                        }
                         Node value;
                         JsonToken t = p.nextToken();
                         if (t == null) { // unexpected end-of-input (or bad buffering?)
@@ -121,56 +205,147 @@ final class JsonDeserializer {
                         switch (t) {
                             case START_OBJECT -> {
                                 stack.push(curr);
-                                curr = new ObjectNode();
+                                curr = _account(p, new ObjectNode(), SLOT_BYTES);
                                 currArray.add(curr);
+                                _checkArrayLength(p, currArray);
                                 continue outer_loop;
                             }
                             case START_ARRAY -> {
                                 stack.push(curr);
-                                curr = new ArrayNode();
+                                curr = _account(p, new ArrayNode(), SLOT_BYTES);
                                 currArray.add(curr);
+                                _checkArrayLength(p, currArray);
                                 continue outer_loop;
                             }
                             case END_OBJECT -> {
-                                throw new StreamReadException(p, "Unexpected token: " + t);
+                                throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "Unexpected token: " + t);
                             }
                             case END_ARRAY -> {
                                 break arrayLoop;
                             }
-                            case VALUE_STRING -> value = new StringNode(p.getString());
+                            case VALUE_STRING -> value = _fromString(p);
                             case VALUE_NUMBER_INT -> value = _fromInt(p);
                             case VALUE_NUMBER_FLOAT -> value = _fromFloat(p);
                             case VALUE_TRUE -> value = TRUE;
                             case VALUE_FALSE -> value = FALSE;
                             case VALUE_NULL -> value = NULL;
-                            default -> throw new StreamReadException(p, "Unexpected token: " + t);
+                            default -> throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "Unexpected token: " + t);
                         }
-                        currArray.add(value);
+                        currArray.add(_account(p, value, SLOT_BYTES));
+                        _checkArrayLength(p, currArray);
                     }
                     // Reached end of array (or input), so...
                 }
             }
 
             // Either way, Object or Array ended, return up nesting level:
-            curr = stack.popOrNull();
+            var parent = stack.popOrNull();
+            if (_interner != null && parent != null) {
+                _internChild(p, parent, curr);
+            }
+            curr = parent;
         } while (curr != null);
 
         return root;
     }
 
+    /// 用结构相同的已有实例 替换刚结束的子容器 (此时 parser 位于子容器的结束 token 上)
+    private void _internChild(JsonParser p, ContainerNode parent, ContainerNode child) {
+        var canonical = _interner.intern(child);
+        if (canonical == child) {
+            return;
+        }
+        switch (parent) {
+            case ObjectNode parentObject -> {
+                // 结束 token 上的上下文已回到父对象, currentName 即子容器的字段名.
+                // 重复字段 (USE_OLD) 时 子容器可能不在该字段上, 此时不替换
+                var name = p.streamReadContext().currentName();
+                if (parentObject.get(name) == child) {
+                    parentObject.put(name, canonical);
+                }
+            }
+            // 子容器一定是父数组的最后一个元素
+            case ArrayNode parentArray -> parentArray.set(parentArray.size() - 1, canonical);
+        }
+    }
+
+    /// 统计节点数量和估算的常驻字节数 (slotBytes 为父容器中 一个条目/槽位 的开销)
+    private <T extends Node> T _account(JsonParser p, T node, int slotBytes) throws StreamReadException {
+        if (!_limited) {
+            return node;
+        }
+        _nodeCount++;
+        if (_nodeCount > _maxNodeCount) {
+            throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "节点数量超过限制 : " + _maxNodeCount);
+        }
+        _retainedBytes += slotBytes + NodeHelper.estimateBytes(node);
+        if (_retainedBytes > _maxRetainedBytes) {
+            throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "估算的内存占用超过限制 : " + _maxRetainedBytes + " 字节");
+        }
+        return node;
+    }
+
+    private void _checkObjectEntries(JsonParser p, ObjectNode objectNode) throws StreamReadException {
+        if (objectNode.size() > _maxObjectEntries) {
+            throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "对象字段数量超过限制 : " + _maxObjectEntries);
+        }
+    }
+
+    private void _checkArrayLength(JsonParser p, ArrayNode arrayNode) throws StreamReadException {
+        if (arrayNode.size() > _maxArrayLength) {
+            throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "数组长度超过限制 : " + _maxArrayLength);
+        }
+    }
+
     private Node _deserializeAnyScalar(JsonParser p) throws StreamReadException {
         var currentToken = p.currentToken();
         return switch (currentToken) {
-            case VALUE_STRING -> new StringNode(p.getString());
+            case VALUE_STRING -> _fromString(p);
             case VALUE_NUMBER_INT -> _fromInt(p);
             case VALUE_NUMBER_FLOAT -> _fromFloat(p);
             case VALUE_TRUE -> TRUE;
             case VALUE_FALSE -> FALSE;
             case VALUE_NULL -> NULL;
-            default -> throw new StreamReadException(p, "Unexpected token: " + currentToken);
+            default -> throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "Unexpected token: " + currentToken);
         };
     }
 
+    private Node _fromString(JsonParser p) throws JacksonException {
+        if (_stringSink == null) {
+            return new StringNode(p.getString());
+        }
+        // getStringLength 只会完成解码, 并不会构建 String
+        if (p.getStringLength() > _stringSinkThreshold) {
+            return _toStringSink(p, p.streamReadContext().pathAsPointer().toString());
+        }
+        if (!_stringSinkPaths.isEmpty()) {
+            var path = p.streamReadContext().pathAsPointer().toString();
+            if (_stringSinkPaths.contains(path)) {
+                return _toStringSink(p, path);
+            }
+        }
+        return new StringNode(p.getString());
+    }
+
+    private Node _toStringSink(JsonParser p, String path) throws JacksonException {
+        try {
+            var writer = _stringSink.open(path);
+            var completed = false;
+            try {
+                var length = p.getString(writer);
+                completed = true;
+                return _stringSink.close(path, writer, length);
+            } finally {
+                // 写出失败时 由接收器关闭 writer 并丢弃内容 (如 删除溢出文件)
+                if (!completed) {
+                    _stringSink.abort(path, writer);
+                }
+            }
+        } catch (IOException e) {
+            throw JacksonIOException.construct(e, p);
+        }
+    }
+
     private Node _fromInt(JsonParser p) throws StreamReadException {
         var numberType = p.getNumberType();
         return switch (numberType) {
@@ -178,21 +353,56 @@ final class JsonDeserializer {
             case LONG -> new LongNode(p.getLongValue());
             case BIG_INTEGER -> new BigIntegerNode(p.getBigIntegerValue());
             // 理论上永远不会发生
-            default -> throw new StreamReadException(p, "Unsupported number type: " + numberType);
+            default -> throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "Unsupported number type: " + numberType);
         };
     }
 
     private Node _fromFloat(JsonParser p) throws StreamReadException {
+        // NaN 和 Infinity 只能用 double 表示
+        if (_floatLiteralPolicy == FloatLiteralPolicy.DOUBLE || p.isNaN()) {
+            return _fromFloatDefault(p);
+        }
+        var value = p.getDecimalValue();
+        if (_floatLiteralPolicy == FloatLiteralPolicy.BIG_DECIMAL) {
+            return new BigDecimalNode(value);
+        }
+        return _fromFloatExact(p, value);
+    }
+
+    private Node _fromFloatDefault(JsonParser p) throws StreamReadException {
         var numberType = p.getNumberType();
         return switch (numberType) {
             case FLOAT -> new FloatNode(p.getFloatValue());
             case DOUBLE -> new DoubleNode(p.getDoubleValue());
             case BIG_DECIMAL -> new BigDecimalNode(p.getDecimalValue());
-            // 理论上永远不会发生 todo NaN 怎么办?
-            default -> throw new StreamReadException(p, "Unsupported number type: " + numberType);
+            // 理论上永远不会发生
+            default -> throw StacklessReadException.of(p, JsonParseErrorKind.SYNTAX, "Unsupported number type: " + numberType);
         };
     }
 
+    /// 有效数字不超过 6 (FLT_DIG) 或 15 (DBL_DIG) 位 且在正规数范围内的十进制数 一定能通过 float 或 double 精确往返,
+    /// 其余情况再通过 Double.toString 校验
+    private static Node _fromFloatExact(JsonParser p, BigDecimal value) {
+        var precision = value.precision();
+        // 整数部分的位数 (即 科学计数法的指数 + 1)
+        var magnitude = precision - value.scale();
+        if (value.signum() == 0) {
+            // BigDecimal 没有 -0 (parser 缓存 BigDecimal 后 getFloatValue 也会丢失符号), 符号从字面量本身读取
+            return new FloatNode(p.getString().charAt(0) == '-' ? -0.0f : 0.0f);
+        }
+        if (precision <= 6 && magnitude > -37 && magnitude < 39) {
+            return new FloatNode(value.floatValue());
+        }
+        if (precision <= 15 && magnitude > -307 && magnitude < 309) {
+            return new DoubleNode(value.doubleValue());
+        }
+        var d = value.doubleValue();
+        if (Double.isFinite(d) && new BigDecimal(Double.toString(d)).compareTo(value) == 0) {
+            return new DoubleNode(d);
+        }
+        return new BigDecimalNode(value);
+    }
+
     private void _handleDuplicateProperty(JsonParser p, String propName, ObjectNode objectNode, Node oldValue, Node newValue) throws JacksonException {
         // 注意此时 objectNode 中已经被新值覆盖了
         switch (_duplicateFieldPolicy) {
@@ -203,7 +413,7 @@ final class JsonDeserializer {
                 objectNode.put(propName, oldValue);
             }
             case THROW -> {
-                throw new StreamReadException(p, "检测到重复字段: \"" + propName + "\"");
+                throw StacklessReadException.of(p, JsonParseErrorKind.DUPLICATE_FIELD, "检测到重复字段: \"" + propName + "\"");
             }
             case MERGE -> {
                 if (oldValue instanceof ArrayNode arrayNode) {
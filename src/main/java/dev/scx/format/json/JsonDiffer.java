@@ -0,0 +1,232 @@
+package dev.scx.format.json;
+
+import dev.scx.node.ArrayNode;
+import dev.scx.node.Node;
+import dev.scx.node.ObjectNode;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonPointer;
+import tools.jackson.core.exc.StreamReadException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static tools.jackson.core.JsonToken.*;
+
+/// 流式比较两个 JSON 输入. 两个 parser 同步前进, 相同的部分不会构建 Node.
+///
+/// - 不忽略字段顺序时: 对象按位置逐个比较, 字段名不同 即视为 删除旧字段 + 新增新字段.
+/// - 忽略字段顺序时: 字段顺序一致的前缀仍然流式比较, 从第一个顺序不一致的字段开始 才缓冲两个对象的剩余字段并按名称比较.
+///
+/// 数组始终按位置比较, 数字按数值比较 (同 [NodeHelper#jsonEquals(Node, Node)]).
+/// 递归深度由 parser 的 [JsonNodeConvertOptions#maxNestingDepth(int)] 限制.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonDiffer {
+
+    private static final StopException STOP = new StopException();
+
+    private final JsonNodeConvertOptions _options;
+    private final JsonDeserializer _deserializer;
+    private final boolean _ignoreKeyOrder;
+    private final boolean _stopAtFirst;
+    private final List<JsonDifference> _differences;
+    // 每次调用创建, 整个调用共享同一截止时间
+    private CancellationChecker _checker;
+
+    public JsonDiffer(JsonNodeConvertOptions options, boolean ignoreKeyOrder, boolean stopAtFirst) {
+        this._options = options;
+        this._deserializer = new JsonDeserializer(options);
+        this._ignoreKeyOrder = ignoreKeyOrder;
+        this._stopAtFirst = stopAtFirst;
+        this._differences = new ArrayList<>();
+    }
+
+    public List<JsonDifference> diff(JsonParser a, JsonParser b) throws JacksonException {
+        _checker = CancellationChecker.of(_options);
+        if (a.nextToken() == null) {
+            throw new StreamReadException(a, "未检测到任何有效内容");
+        }
+        if (b.nextToken() == null) {
+            throw new StreamReadException(b, "未检测到任何有效内容");
+        }
+        try {
+            _diffValue(a, b, JsonPointer.empty());
+        } catch (StopException e) {
+            return _differences;
+        }
+        if (a.nextToken() != null) {
+            throw new StreamReadException(a, "检测到多余内容");
+        }
+        if (b.nextToken() != null) {
+            throw new StreamReadException(b, "检测到多余内容");
+        }
+        return _differences;
+    }
+
+    private void _diffValue(JsonParser a, JsonParser b, JsonPointer path) {
+        _check();
+        var ta = a.currentToken();
+        var tb = b.currentToken();
+        if (ta == START_OBJECT && tb == START_OBJECT) {
+            _diffObject(a, b, path);
+        } else if (ta == START_ARRAY && tb == START_ARRAY) {
+            _diffArray(a, b, path);
+        } else {
+            var oldValue = _read(a);
+            var newValue = _read(b);
+            if (!NodeHelper.jsonEquals(oldValue, newValue)) {
+                _report(path, oldValue, newValue);
+            }
+        }
+    }
+
+    private void _diffObject(JsonParser a, JsonParser b, JsonPointer path) {
+        var endA = false;
+        var endB = false;
+        while (true) {
+            _check();
+            var nameA = endA ? null : a.nextName();
+            var nameB = endB ? null : b.nextName();
+            endA = nameA == null;
+            endB = nameB == null;
+            if (endA && endB) {
+                return;
+            }
+            if (nameA != null && nameA.equals(nameB)) {
+                a.nextToken();
+                b.nextToken();
+                _diffValue(a, b, path.appendProperty(nameA));
+                continue;
+            }
+            if (_ignoreKeyOrder) {
+                _diffRemainingFields(a, b, path, nameA, nameB);
+                return;
+            }
+            if (nameA != null) {
+                a.nextToken();
+                _report(path.appendProperty(nameA), _read(a), null);
+            }
+            if (nameB != null) {
+                b.nextToken();
+                _report(path.appendProperty(nameB), null, _read(b));
+            }
+        }
+    }
+
+    private void _diffArray(JsonParser a, JsonParser b, JsonPointer path) {
+        var index = 0;
+        while (true) {
+            var ta = a.nextToken();
+            var tb = b.nextToken();
+            if (ta == END_ARRAY && tb == END_ARRAY) {
+                return;
+            }
+            if (ta == END_ARRAY) {
+                do {
+                    _report(path.appendIndex(index), null, _read(b));
+                    index++;
+                } while (b.nextToken() != END_ARRAY);
+                return;
+            }
+            if (tb == END_ARRAY) {
+                do {
+                    _report(path.appendIndex(index), _read(a), null);
+                    index++;
+                } while (a.nextToken() != END_ARRAY);
+                return;
+            }
+            _diffValue(a, b, path.appendIndex(index));
+            index++;
+        }
+    }
+
+    /// 缓冲两个对象的剩余字段 (nameA/nameB 为已读取名称但未读取值的字段, null 表示该对象已结束), 按名称比较
+    private void _diffRemainingFields(JsonParser a, JsonParser b, JsonPointer path, String nameA, String nameB) {
+        var oldFields = _readRemainingFields(a, nameA);
+        var newFields = _readRemainingFields(b, nameB);
+        for (var field : oldFields.entrySet()) {
+            var newValue = newFields.remove(field.getKey());
+            if (newValue == null) {
+                _report(path.appendProperty(field.getKey()), field.getValue(), null);
+            } else {
+                _diffNodes(path.appendProperty(field.getKey()), field.getValue(), newValue);
+            }
+        }
+        for (var field : newFields.entrySet()) {
+            _report(path.appendProperty(field.getKey()), null, field.getValue());
+        }
+    }
+
+    private LinkedHashMap<String, Node> _readRemainingFields(JsonParser p, String name) {
+        var fields = new LinkedHashMap<String, Node>();
+        while (name != null) {
+            p.nextToken();
+            fields.put(name, _read(p));
+            name = p.nextName();
+        }
+        return fields;
+    }
+
+    /// 比较已缓冲的节点 (对象按名称, 数组按位置)
+    private void _diffNodes(JsonPointer path, Node oldValue, Node newValue) {
+        _check();
+        if (oldValue instanceof ObjectNode oldObject && newValue instanceof ObjectNode newObject) {
+            for (var field : oldObject) {
+                var other = newObject.get(field.getKey());
+                if (other == null) {
+                    _report(path.appendProperty(field.getKey()), field.getValue(), null);
+                } else {
+                    _diffNodes(path.appendProperty(field.getKey()), field.getValue(), other);
+                }
+            }
+            for (var field : newObject) {
+                if (oldObject.get(field.getKey()) == null) {
+                    _report(path.appendProperty(field.getKey()), null, field.getValue());
+                }
+            }
+        } else if (oldValue instanceof ArrayNode oldArray && newValue instanceof ArrayNode newArray) {
+            var size = Math.max(oldArray.size(), newArray.size());
+            for (int i = 0; i < size; i++) {
+                if (i >= newArray.size()) {
+                    _report(path.appendIndex(i), oldArray.get(i), null);
+                } else if (i >= oldArray.size()) {
+                    _report(path.appendIndex(i), null, newArray.get(i));
+                } else {
+                    _diffNodes(path.appendIndex(i), oldArray.get(i), newArray.get(i));
+                }
+            }
+        } else if (!NodeHelper.jsonEquals(oldValue, newValue)) {
+            _report(path, oldValue, newValue);
+        }
+    }
+
+    private Node _read(JsonParser p) {
+        return _deserializer.deserializeValue(p, _checker);
+    }
+
+    private void _check() {
+        if (_checker != null) {
+            _checker.check();
+        }
+    }
+
+    private void _report(JsonPointer path, Node oldValue, Node newValue) {
+        _differences.add(new JsonDifference(path.toString(), oldValue, newValue));
+        if (_stopAtFirst) {
+            throw STOP;
+        }
+    }
+
+    /// 用于在第一处差异时 跳出递归 (无堆栈, 可复用)
+    private static final class StopException extends RuntimeException {
+
+        private StopException() {
+            super(null, null, false, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package dev.scx.format.json;
+
+import dev.scx.node.Node;
+
+/// 两个 JSON 输入之间的一处差异
+///
+/// @param path     差异所在位置 (JSON Pointer)
+/// @param oldValue 旧值, null 表示新增
+/// @param newValue 新值, null 表示删除
+/// @author scx567888
+/// @version 0.0.1
+public record JsonDifference(String path, Node oldValue, Node newValue) {
+
+}
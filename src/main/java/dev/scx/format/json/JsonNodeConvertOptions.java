@@ -7,8 +7,14 @@ import tools.jackson.core.json.JsonReadFeature;
 import tools.jackson.core.json.JsonWriteFeature;
 import tools.jackson.core.util.DefaultPrettyPrinter;
 
+import java.time.Duration;
+import java.util.Set;
+
 import static dev.scx.format.json.JacksonHelper.configure;
 import static tools.jackson.core.StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION;
+import static tools.jackson.core.StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER;
+import static tools.jackson.core.StreamReadFeature.USE_FAST_DOUBLE_PARSER;
+import static tools.jackson.core.StreamWriteFeature.USE_FAST_DOUBLE_WRITER;
 import static tools.jackson.core.StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN;
 import static tools.jackson.core.json.JsonReadFeature.*;
 import static tools.jackson.core.json.JsonWriteFeature.*;
@@ -30,9 +36,12 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
 
     // _streamReadFeatures 相关
     private boolean includeSourceInLocation;
+    private boolean useFastDoubleParser;
+    private boolean useFastBigNumberParser;
 
     // _streamWriteFeatures 相关
     private boolean writeBigDecimalAsPlain;
+    private boolean useFastDoubleWriter;
 
     // _formatReadFeatures 相关
     private boolean allowJavaComments;
@@ -66,7 +75,22 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
 
     // 自定义配置
     private DuplicateFieldPolicy duplicateFieldPolicy;
+    private FloatLiteralPolicy floatLiteralPolicy;
     private boolean prettyPrint;
+    private boolean canonical;
+    private JsonStringSink stringSink;
+    private int stringSinkThreshold;
+    private Set<String> stringSinkPaths;
+    private boolean detectGzip;
+    private boolean gzip;
+    private boolean adaptiveOutputSizing;
+    private long maxNodeCount;
+    private int maxObjectEntries;
+    private int maxArrayLength;
+    private long maxRetainedBytes;
+    private boolean internSubtrees;
+    private Duration timeout;
+    private JsonCancellationToken cancellationToken;
 
     // other
     private CharacterEscapes characterEscapes;
@@ -77,8 +101,11 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
     public JsonNodeConvertOptions() {
         // _streamReadFeatures 相关
         this.includeSourceInLocation = INCLUDE_SOURCE_IN_LOCATION.enabledByDefault();
+        this.useFastDoubleParser = USE_FAST_DOUBLE_PARSER.enabledByDefault();
+        this.useFastBigNumberParser = USE_FAST_BIG_NUMBER_PARSER.enabledByDefault();
         // _streamWriteFeatures 相关
         this.writeBigDecimalAsPlain = WRITE_BIGDECIMAL_AS_PLAIN.enabledByDefault();
+        this.useFastDoubleWriter = USE_FAST_DOUBLE_WRITER.enabledByDefault();
         // _formatReadFeatures 相关
         this.allowJavaComments = ALLOW_JAVA_COMMENTS.enabledByDefault();
         this.allowYamlComments = ALLOW_YAML_COMMENTS.enabledByDefault();
@@ -107,7 +134,22 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
         this.errorReportConfiguration = ErrorReportConfiguration.defaults();
         // 自定义配置
         this.duplicateFieldPolicy = DuplicateFieldPolicy.USE_NEW;
+        this.floatLiteralPolicy = FloatLiteralPolicy.DOUBLE;
         this.prettyPrint = false;
+        this.canonical = false;
+        this.stringSink = null;
+        this.stringSinkThreshold = Integer.MAX_VALUE;
+        this.stringSinkPaths = Set.of();
+        this.detectGzip = true;
+        this.gzip = false;
+        this.adaptiveOutputSizing = false;
+        this.maxNodeCount = Long.MAX_VALUE; // disabled
+        this.maxObjectEntries = Integer.MAX_VALUE; // disabled
+        this.maxArrayLength = Integer.MAX_VALUE; // disabled
+        this.maxRetainedBytes = Long.MAX_VALUE; // disabled
+        this.internSubtrees = false;
+        this.timeout = null; // disabled
+        this.cancellationToken = null;
         // other
         this.characterEscapes = null;
         this.rootValueSeparator = DEFAULT_ROOT_VALUE_SEPARATOR;
@@ -124,6 +166,26 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
         return this;
     }
 
+    public boolean useFastDoubleParser() {
+        return useFastDoubleParser;
+    }
+
+    /// 使用 FastDoubleParser 解析 double 和 float
+    public JsonNodeConvertOptions useFastDoubleParser(boolean useFastDoubleParser) {
+        this.useFastDoubleParser = useFastDoubleParser;
+        return this;
+    }
+
+    public boolean useFastBigNumberParser() {
+        return useFastBigNumberParser;
+    }
+
+    /// 使用 FastDoubleParser 解析 BigDecimal 和 BigInteger
+    public JsonNodeConvertOptions useFastBigNumberParser(boolean useFastBigNumberParser) {
+        this.useFastBigNumberParser = useFastBigNumberParser;
+        return this;
+    }
+
     public boolean writeBigDecimalAsPlain() {
         return writeBigDecimalAsPlain;
     }
@@ -133,6 +195,16 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
         return this;
     }
 
+    public boolean useFastDoubleWriter() {
+        return useFastDoubleWriter;
+    }
+
+    /// 使用 Schubfach 算法写出 double 和 float (输出与 Double.toString 可能在形式上略有不同, 但数值相同)
+    public JsonNodeConvertOptions useFastDoubleWriter(boolean useFastDoubleWriter) {
+        this.useFastDoubleWriter = useFastDoubleWriter;
+        return this;
+    }
+
     public boolean allowJavaComments() {
         return allowJavaComments;
     }
@@ -340,6 +412,15 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
         return this;
     }
 
+    public FloatLiteralPolicy floatLiteralPolicy() {
+        return floatLiteralPolicy;
+    }
+
+    public JsonNodeConvertOptions floatLiteralPolicy(FloatLiteralPolicy floatLiteralPolicy) {
+        this.floatLiteralPolicy = floatLiteralPolicy;
+        return this;
+    }
+
     public boolean prettyPrint() {
         return prettyPrint;
     }
@@ -349,6 +430,153 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
         return this;
     }
 
+    public boolean canonical() {
+        return canonical;
+    }
+
+    /// RFC 8785 (JCS) 规范化输出: 字段按 UTF-16 码元排序, 数字按 ECMAScript 格式输出, 最小化转义.
+    /// 启用后 会忽略 prettyPrint, characterEscapes, highestNonEscapedChar, quoteChar 以及相关的写入特性.
+    public JsonNodeConvertOptions canonical(boolean canonical) {
+        this.canonical = canonical;
+        return this;
+    }
+
+    public JsonStringSink stringSink() {
+        return stringSink;
+    }
+
+    /// 长度超过 [#stringSinkThreshold(int)] 或 位于 [#stringSinkPaths(Set)] 的字符串值 会被流式写入此接收器, 而不是构建为 String.
+    /// 注意 parser 的分段文本缓冲区仍会持有该值, 但避免了 合并后的 char[] 和 String 这两份拷贝.
+    public JsonNodeConvertOptions stringSink(JsonStringSink stringSink) {
+        this.stringSink = stringSink;
+        return this;
+    }
+
+    public int stringSinkThreshold() {
+        return stringSinkThreshold;
+    }
+
+    /// 字符数
+    public JsonNodeConvertOptions stringSinkThreshold(int stringSinkThreshold) {
+        this.stringSinkThreshold = stringSinkThreshold;
+        return this;
+    }
+
+    public Set<String> stringSinkPaths() {
+        return stringSinkPaths;
+    }
+
+    /// JSON Pointer 集合 (如 "/attachments/0/data")
+    public JsonNodeConvertOptions stringSinkPaths(Set<String> stringSinkPaths) {
+        this.stringSinkPaths = stringSinkPaths;
+        return this;
+    }
+
+    public boolean detectGzip() {
+        return detectGzip;
+    }
+
+    /// 根据魔数 (1f 8b) 自动解压 InputStream, byte[], File 输入. Reader 和 String 输入不受影响.
+    public JsonNodeConvertOptions detectGzip(boolean detectGzip) {
+        this.detectGzip = detectGzip;
+        return this;
+    }
+
+    public boolean gzip() {
+        return gzip;
+    }
+
+    /// 以 gzip 压缩 OutputStream, byte[], File 输出. Writer 和 String 输出不受影响.
+    public JsonNodeConvertOptions gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public boolean adaptiveOutputSizing() {
+        return adaptiveOutputSizing;
+    }
+
+    /// 根据同一 converter 之前的输出大小 预分配 byte[] 和 String 输出的缓冲区, 减少扩容复制.
+    /// 默认关闭: 输出大小差异很大时 (如偶尔输出一个大文档) 之后的每次小输出也会按大缓冲区分配.
+    public JsonNodeConvertOptions adaptiveOutputSizing(boolean adaptiveOutputSizing) {
+        this.adaptiveOutputSizing = adaptiveOutputSizing;
+        return this;
+    }
+
+    public long maxNodeCount() {
+        return maxNodeCount;
+    }
+
+    /// 单个文档构建的 Node 总数上限 (与 maxTokenCount 不同, 它直接限制了树的规模)
+    public JsonNodeConvertOptions maxNodeCount(long maxNodeCount) {
+        this.maxNodeCount = maxNodeCount;
+        return this;
+    }
+
+    public int maxObjectEntries() {
+        return maxObjectEntries;
+    }
+
+    /// 单个对象的字段数量上限
+    public JsonNodeConvertOptions maxObjectEntries(int maxObjectEntries) {
+        this.maxObjectEntries = maxObjectEntries;
+        return this;
+    }
+
+    public int maxArrayLength() {
+        return maxArrayLength;
+    }
+
+    /// 单个数组的长度上限
+    public JsonNodeConvertOptions maxArrayLength(int maxArrayLength) {
+        this.maxArrayLength = maxArrayLength;
+        return this;
+    }
+
+    public long maxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /// 解析结果 (Node 树) 估算的常驻内存上限 (字节). 估算是粗略的, 用于给不可信输入设置堆预算, 而非精确计量
+    public JsonNodeConvertOptions maxRetainedBytes(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        return this;
+    }
+
+    public boolean internSubtrees() {
+        return internSubtrees;
+    }
+
+    /// 解析时对结构相同的小容器 (只含标量, 最多 16 个子节点) 去重, 在同一个文档内共享同一个实例, 以降低重复数据的内存占用.
+    ///
+    /// 注意: 开启后 解析结果中的容器可能被多处引用, 必须当作只读使用. 修改其中一处 会同时改变其他所有位置.
+    /// 如需修改, 请先深拷贝. maxRetainedBytes 仍按未去重计算. duplicateFieldPolicy 为 MERGE 时不生效
+    public JsonNodeConvertOptions internSubtrees(boolean internSubtrees) {
+        this.internSubtrees = internSubtrees;
+        return this;
+    }
+
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /// 单次转换 (一次 formatToNode, nodeToFormat*, rewrite*, *Patch, diff 或 ndjson* 调用, 包括其中的全部值) 的超时时间, 超时后以 [JsonCancellationException] 中止.
+    /// 在 token 之间检查, 因此无法中断对单个超大 token 或阻塞输入流的读取
+    public JsonNodeConvertOptions timeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public JsonCancellationToken cancellationToken() {
+        return cancellationToken;
+    }
+
+    /// 取消令牌 (可同时带有截止时间), 被取消后以 [JsonCancellationException] 中止
+    public JsonNodeConvertOptions cancellationToken(JsonCancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
     public CharacterEscapes characterEscapes() {
         return characterEscapes;
     }
@@ -393,12 +621,15 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
     int toStreamReadFeatures() {
         var _streamReadFeatures = DEFAULT_STREAM_READ_FEATURE_FLAGS;
         _streamReadFeatures = configure(INCLUDE_SOURCE_IN_LOCATION, includeSourceInLocation, _streamReadFeatures);
+        _streamReadFeatures = configure(USE_FAST_DOUBLE_PARSER, useFastDoubleParser, _streamReadFeatures);
+        _streamReadFeatures = configure(USE_FAST_BIG_NUMBER_PARSER, useFastBigNumberParser, _streamReadFeatures);
         return _streamReadFeatures;
     }
 
     int toStreamWriteFeature() {
         var _streamWriteFeatures = DEFAULT_STREAM_WRITE_FEATURE_FLAGS;
         _streamWriteFeatures = configure(WRITE_BIGDECIMAL_AS_PLAIN, writeBigDecimalAsPlain, _streamWriteFeatures);
+        _streamWriteFeatures = configure(USE_FAST_DOUBLE_WRITER, useFastDoubleWriter, _streamWriteFeatures);
         return _streamWriteFeatures;
     }
 
@@ -424,6 +655,15 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
         _formatWriteFeatures = configure(WRITE_NAN_AS_STRINGS, writeNanAsStrings, _formatWriteFeatures);
         _formatWriteFeatures = configure(ESCAPE_NON_ASCII, escapeNonAscii, _formatWriteFeatures);
         _formatWriteFeatures = configure(WRITE_NUMBERS_AS_STRINGS, writeNumbersAsStrings, _formatWriteFeatures);
+        if (canonical) {
+            // RFC 8785: 最小化转义, 小写十六进制, 非 BMP 字符直接以 UTF-8 输出
+            _formatWriteFeatures = configure(QUOTE_PROPERTY_NAMES, true, _formatWriteFeatures);
+            _formatWriteFeatures = configure(ESCAPE_NON_ASCII, false, _formatWriteFeatures);
+            _formatWriteFeatures = configure(ESCAPE_FORWARD_SLASHES, false, _formatWriteFeatures);
+            _formatWriteFeatures = configure(WRITE_NUMBERS_AS_STRINGS, false, _formatWriteFeatures);
+            _formatWriteFeatures = configure(WRITE_HEX_UPPER_CASE, false, _formatWriteFeatures);
+            _formatWriteFeatures = configure(COMBINE_UNICODE_SURROGATES_IN_UTF8, true, _formatWriteFeatures);
+        }
         return _formatWriteFeatures;
     }
 
@@ -444,4 +684,18 @@ public class JsonNodeConvertOptions implements FormatNodeConvertOptions {
             .build();
     }
 
+    /// 影响解析结果的全部配置 (用于 [JsonParseCache] 的 key). 不含 stringSink (使用 stringSink 时不缓存), timeout 和 cancellationToken
+    ParseKey toParseKey() {
+        return new ParseKey(toFactoryFeatures(), toStreamReadFeatures(), toFormatReadFeatures(),
+            maxNestingDepth, maxDocumentLength, maxTokenCount, maxNumberLength, maxStringLength, maxNameLength,
+            duplicateFieldPolicy, floatLiteralPolicy, detectGzip, maxNodeCount, maxObjectEntries, maxArrayLength, maxRetainedBytes);
+    }
+
+    record ParseKey(int factoryFeatures, int streamReadFeatures, int formatReadFeatures,
+                    int maxNestingDepth, long maxDocumentLength, long maxTokenCount, int maxNumberLength, int maxStringLength, int maxNameLength,
+                    DuplicateFieldPolicy duplicateFieldPolicy, FloatLiteralPolicy floatLiteralPolicy, boolean detectGzip,
+                    long maxNodeCount, int maxObjectEntries, int maxArrayLength, long maxRetainedBytes) {
+
+    }
+
 }
@@ -0,0 +1,125 @@
+package dev.scx.format.json;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.node.Node;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.TokenStreamFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+
+/// 转换会话, 用于在同一线程中 以相同的 options 反复转换大量小文档.
+///
+/// 会话在多次调用之间复用 factory, [JsonDeserializer] (及其 [ContainerStack]), 独占的 BufferRecycler 以及输出缓冲区,
+/// 每次调用只需创建 parser/generator 本身.
+///
+/// 与 [JsonNodeConverter] 一样遵循 [JsonNodeConvertOptions#detectGzip()] (byte[] 输入) 和 [JsonNodeConvertOptions#gzip()] (字节输出).
+///
+/// 会话 **非线程安全**, 应由单个线程持有.
+/// 读写特性, 限制等用于构建 factory 和 deserializer 的 options 在创建会话时生效, 之后修改不会影响会话;
+/// canonical, gzip, detectGzip, cancellationToken 和 timeout 则在每次调用时读取.
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see JsonNodeConverter#newSession(JsonNodeConvertOptions)
+public final class JsonNodeConvertSession {
+
+    private final JsonNodeConvertOptions _options;
+    private final TokenStreamFactory _jsonFactory;
+    private final ObjectReadContext _readContext;
+    private final ObjectWriteContext _writeContext;
+    private final JsonDeserializer _deserializer;
+    private final GzipPool _gzipPool;
+    private ByteArrayOutputStream _outputStream;
+    private StringWriter _writer;
+
+    JsonNodeConvertSession(JsonNodeConvertOptions options, TokenStreamFactory jsonFactory, ObjectReadContext readContext, ObjectWriteContext writeContext, GzipPool gzipPool) {
+        this._options = options;
+        this._jsonFactory = jsonFactory;
+        this._readContext = readContext;
+        this._writeContext = writeContext;
+        this._deserializer = new JsonDeserializer(options);
+        this._gzipPool = gzipPool;
+        this._outputStream = new ByteArrayOutputStream();
+        this._writer = new StringWriter();
+    }
+
+    public Node formatToNode(byte[] bytes) throws FormatToNodeException {
+        if (_options.detectGzip() && PooledGzipInputStream.isGzip(bytes)) {
+            return _formatToNodeGzip(bytes);
+        }
+        try (var parser = _jsonFactory.createParser(_readContext, bytes)) {
+            return _deserializer.deserialize(parser);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    public Node formatToNode(String string) throws FormatToNodeException {
+        try (var parser = _jsonFactory.createParser(_readContext, string)) {
+            return _deserializer.deserialize(parser);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    public void nodeToFormat(Node node, OutputStream outputStream) throws NodeToFormatException {
+        if (_options.gzip()) {
+            _nodeToFormatGzip(node, outputStream);
+            return;
+        }
+        try (var generator = _jsonFactory.createGenerator(_writeContext, outputStream)) {
+            JsonNodeConverter.serialize(generator, node, _options);
+        } catch (JacksonException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    public byte[] nodeToFormatBytes(Node node) throws NodeToFormatException {
+        _outputStream.reset();
+        nodeToFormat(node, _outputStream);
+        return _outputStream.toByteArray();
+    }
+
+    public String nodeToFormatString(Node node) throws NodeToFormatException {
+        _writer.getBuffer().setLength(0);
+        try (var generator = _jsonFactory.createGenerator(_writeContext, _writer)) {
+            JsonNodeConverter.serialize(generator, node, _options);
+        } catch (JacksonException e) {
+            throw new NodeToFormatException(e);
+        }
+        return _writer.toString();
+    }
+
+    private Node _formatToNodeGzip(byte[] bytes) throws FormatToNodeException {
+        try (var gzipInputStream = new PooledGzipInputStream(new ByteArrayInputStream(bytes), _gzipPool);
+             var parser = _jsonFactory.createParser(_readContext, gzipInputStream)) {
+            return _deserializer.deserialize(parser);
+        } catch (JacksonException | IOException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 压缩输出, 结束时写入 gzip 尾部并关闭 outputStream (与 [JsonNodeConverter] 一致)
+    private void _nodeToFormatGzip(Node node, OutputStream outputStream) throws NodeToFormatException {
+        try (var gzipOutputStream = new PooledGzipOutputStream(outputStream, _gzipPool);
+             var generator = _jsonFactory.createGenerator(_writeContext, gzipOutputStream)) {
+            JsonNodeConverter.serialize(generator, node, _options);
+        } catch (JacksonException | IOException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 释放会话中积累的缓冲区 (例如处理过一个特别大的文档之后)
+    public void reset() {
+        this._outputStream = new ByteArrayOutputStream();
+        this._writer = new StringWriter();
+    }
+
+}
@@ -4,17 +4,31 @@ import dev.scx.format.FormatNodeConverter;
 import dev.scx.format.FormatToNodeException;
 import dev.scx.format.NodeToFormatException;
 import dev.scx.node.Node;
+import dev.scx.node.NullNode;
+import dev.scx.node.ObjectNode;
 import tools.jackson.core.*;
 import tools.jackson.core.sym.ByteQuadsCanonicalizer;
 import tools.jackson.core.util.BufferRecycler;
-import tools.jackson.core.util.JsonRecyclerPools;
 import tools.jackson.core.util.RecyclerPool;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
-import static dev.scx.format.json.JsonSerializer.serialize;
 import static dev.scx.format.json.PrettyPrintObjectWriteContext.PRETTY_PRINT_OBJECT_WRITE_CONTEXT;
+import static dev.scx.format.json.StrictDuplicateObjectReadContext.STRICT_DUPLICATE_OBJECT_READ_CONTEXT;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /// JsonNodeConverter
 ///
@@ -22,13 +36,33 @@ import static dev.scx.format.json.PrettyPrintObjectWriteContext.PRETTY_PRINT_OBJ
 /// @version 0.0.1
 public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConvertOptions> {
 
-    private final ByteQuadsCanonicalizer _byteSymbolCanonicalizer;
+    /// 见 ByteQuadsCanonicalizer.MAX_ENTRIES_FOR_REUSE
+    private static final int MAX_WARM_UP_PROPERTY_NAMES = 6000;
+
+    private final ByteQuadsCanonicalizer[] _byteSymbolCanonicalizers;
+    private final int _stripeMask;
+    private final CharSymbolRoots _charSymbolRoots;
     private final RecyclerPool<BufferRecycler> _recyclerPool;
+    private final GzipPool _gzipPool;
+    private final OutputSizeHint _bytesSizeHint;
+    private final OutputSizeHint _stringSizeHint;
 
     public JsonNodeConverter() {
         // 这两个对象的创建很耗性能 我们在此复用
-        this._byteSymbolCanonicalizer = ByteQuadsCanonicalizer.createRoot();
-        this._recyclerPool = JsonRecyclerPools.defaultPool();
+        // 同一个 converter 常被大量线程共享, 因此按线程分段, 避免所有子表都合并回同一个根 (CAS 失败时 新增的字段名会被丢弃)
+        var stripeCount = StripedRecyclerPool.stripeCount();
+        this._byteSymbolCanonicalizers = new ByteQuadsCanonicalizer[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this._byteSymbolCanonicalizers[i] = ByteQuadsCanonicalizer.createRoot();
+        }
+        this._stripeMask = stripeCount - 1;
+        this._charSymbolRoots = new CharSymbolRoots();
+        this._recyclerPool = new StripedRecyclerPool(stripeCount);
+        // Inflater/Deflater 持有原生内存, 同样复用
+        this._gzipPool = new GzipPool(Runtime.getRuntime().availableProcessors() * 2);
+        // byte[] 和 String 输出分别统计 (压缩输出不参与统计)
+        this._bytesSizeHint = new OutputSizeHint();
+        this._stringSizeHint = new OutputSizeHint();
     }
 
     @Override
@@ -44,6 +78,13 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
 
     @Override
     public Node formatToNode(InputStream inputStream, Charset charset, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        if (options.detectGzip()) {
+            var pushbackInputStream = new PushbackInputStream(inputStream, 2);
+            if (PooledGzipInputStream.isGzip(pushbackInputStream)) {
+                return formatToNodeGzip(pushbackInputStream, options);
+            }
+            inputStream = pushbackInputStream;
+        }
         var jsonFactory = createJsonFactory(options);
         var readContext = createReadContext(options);
         try (var parser = jsonFactory.createParser(readContext, inputStream)) {
@@ -66,6 +107,13 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
 
     @Override
     public Node formatToNode(byte[] bytes, Charset charset, JsonNodeConvertOptions options) throws FormatToNodeException {
+        if (options.detectGzip() && PooledGzipInputStream.isGzip(bytes)) {
+            try {
+                return formatToNodeGzip(new ByteArrayInputStream(bytes), options);
+            } catch (IOException e) {
+                throw new FormatToNodeException(e);
+            }
+        }
         var jsonFactory = createJsonFactory(options);
         var readContext = createReadContext(options);
         try (var parser = jsonFactory.createParser(readContext, bytes)) {
@@ -77,6 +125,12 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
 
     @Override
     public Node formatToNode(File file, Charset charset, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        // 从同一个流中探测魔数, 避免为探测再打开一次文件
+        if (options.detectGzip()) {
+            try (var inputStream = new FileInputStream(file)) {
+                return formatToNode(inputStream, charset, options);
+            }
+        }
         var jsonFactory = createJsonFactory(options);
         var readContext = createReadContext(options);
         try (var parser = jsonFactory.createParser(readContext, file)) {
@@ -91,7 +145,7 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
         var jsonFactory = createJsonFactory(options);
         var writeContext = createWriteContext(options);
         try (var generator = jsonFactory.createGenerator(writeContext, writer)) {
-            serialize(generator, node);
+            serialize(generator, node, options);
         } catch (JacksonException e) {
             throw new NodeToFormatException(e);
         }
@@ -99,10 +153,14 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
 
     @Override
     public void nodeToFormat(Node node, OutputStream outputStream, Charset charset, JsonNodeConvertOptions options) throws NodeToFormatException, IOException {
+        if (options.gzip()) {
+            nodeToFormatGzip(node, outputStream, options);
+            return;
+        }
         var jsonFactory = createJsonFactory(options);
         var writeContext = createWriteContext(options);
         try (var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
-            serialize(generator, node);
+            serialize(generator, node, options);
         } catch (JacksonException e) {
             throw new NodeToFormatException(e);
         }
@@ -110,9 +168,14 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
 
     @Override
     public String nodeToFormatString(Node node, JsonNodeConvertOptions options) throws NodeToFormatException {
-        try (var writer = new StringWriter()) {
+        var adaptive = options.adaptiveOutputSizing();
+        try (var writer = adaptive ? new StringWriter(_stringSizeHint.get()) : new StringWriter()) {
             nodeToFormat(node, writer, options);
-            return writer.toString();
+            var string = writer.toString();
+            if (adaptive) {
+                _stringSizeHint.record(string.length());
+            }
+            return string;
         } catch (IOException e) {
             throw new NodeToFormatException(e);
         }
@@ -120,8 +183,12 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
 
     @Override
     public byte[] nodeToFormatBytes(Node node, Charset charset, JsonNodeConvertOptions options) throws NodeToFormatException {
-        try (var outputStream = new ByteArrayOutputStream()) {
+        var adaptive = options.adaptiveOutputSizing() && !options.gzip();
+        try (var outputStream = adaptive ? new ByteArrayOutputStream(_bytesSizeHint.get()) : new ByteArrayOutputStream()) {
             nodeToFormat(node, outputStream, charset, options);
+            if (adaptive) {
+                _bytesSizeHint.record(outputStream.size());
+            }
             return outputStream.toByteArray();
         } catch (IOException e) {
             throw new NodeToFormatException(e);
@@ -130,26 +197,527 @@ public final class JsonNodeConverter implements FormatNodeConverter<JsonNodeConv
 
     @Override
     public File nodeToFormatFile(Node node, File file, Charset charset, JsonNodeConvertOptions options) throws NodeToFormatException, IOException {
+        if (options.gzip()) {
+            nodeToFormatGzip(node, new FileOutputStream(file), options);
+            return file;
+        }
         var jsonFactory = createJsonFactory(options);
         var writeContext = createWriteContext(options);
         try (var generator = jsonFactory.createGenerator(writeContext, file, JsonEncoding.UTF8)) {
-            serialize(generator, node);
+            serialize(generator, node, options);
             return file;
         } catch (JacksonException e) {
             throw new NodeToFormatException(e);
         }
     }
 
+    /// 低开销地解析 (UTF-8), 用于需要大量拒绝非法输入的场景.
+    ///
+    /// 解析失败时不抛出异常, 而是返回只包含类别和位置的 [JsonParseError]: 内部的异常不填充栈信息, 也不再包装为 FormatToNodeException,
+    /// 因此拒绝的开销接近正常解析. 建议同时关闭 [JsonNodeConvertOptions#includeSourceInLocation(boolean)].
+    /// UTF-16/32 编码的输入 仍按普通方式报告错误 (开销较高, 结果相同).
+    public JsonParseResult tryFormatToNode(byte[] bytes, JsonNodeConvertOptions options) {
+        if (options.detectGzip() && PooledGzipInputStream.isGzip(bytes)) {
+            try {
+                return new JsonParseResult(formatToNode(bytes, UTF_8, options), null);
+            } catch (FormatToNodeException e) {
+                return toParseResult(e);
+            }
+        }
+        var jsonFactory = createStacklessJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, bytes)) {
+            return new JsonParseResult(new JsonDeserializer(options).deserialize(parser), null);
+        } catch (JacksonException e) {
+            return new JsonParseResult(null, JsonParseError.of(e));
+        }
+    }
+
+    /// 低开销地解析, 参见 [#tryFormatToNode(byte[], JsonNodeConvertOptions)]
+    public JsonParseResult tryFormatToNode(String string, JsonNodeConvertOptions options) {
+        var jsonFactory = createStacklessJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, string)) {
+            return new JsonParseResult(new JsonDeserializer(options).deserialize(parser), null);
+        } catch (JacksonException e) {
+            return new JsonParseResult(null, JsonParseError.of(e));
+        }
+    }
+
+    private static JsonParseResult toParseResult(FormatToNodeException e) {
+        if (e.getCause() instanceof JacksonException c) {
+            return new JsonParseResult(null, JsonParseError.of(c));
+        }
+        // gzip 数据损坏等
+        return new JsonParseResult(null, new JsonParseError(JsonParseErrorKind.SYNTAX, -1, -1, -1, e.getMessage()));
+    }
+
+    /// 格式错误的 pointer 和其他输入错误一样 以 FormatToNodeException 抛出
+    private static JsonPointer compilePointer(String pointer) throws FormatToNodeException {
+        try {
+            return JsonPointer.compile(pointer);
+        } catch (IllegalArgumentException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 同时读写的流式操作 (rewrite, mergePatch, jsonPatch) 按出错的一方区分异常类型: generator 抛出的为 NodeToFormatException,
+    /// 其余 (语法错误, 读取限制, 输入流的 IO 错误, 取消和超时) 为 FormatToNodeException.
+    /// StreamConstraintsException 不携带 processor, 而写出的深度与读取的一致, 因此也归为读取端
+    private static void throwReadOrWrite(JacksonException e) throws FormatToNodeException, NodeToFormatException {
+        if (e.processor() instanceof JsonGenerator) {
+            throw new NodeToFormatException(e);
+        }
+        throw new FormatToNodeException(e);
+    }
+
+    /// 解压输入并解析, 结束时关闭 (并归还 Inflater).
+    private Node formatToNodeGzip(InputStream inputStream, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var gzipInputStream = new PooledGzipInputStream(inputStream, _gzipPool);
+             var parser = jsonFactory.createParser(readContext, gzipInputStream)) {
+            return new JsonDeserializer(options).deserialize(parser);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 压缩输出, 结束时写入 gzip 尾部并关闭 (并归还 Deflater).
+    private void nodeToFormatGzip(Node node, OutputStream outputStream, JsonNodeConvertOptions options) throws NodeToFormatException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var writeContext = createWriteContext(options);
+        try (var gzipOutputStream = new PooledGzipOutputStream(outputStream, _gzipPool);
+             var generator = jsonFactory.createGenerator(writeContext, gzipOutputStream)) {
+            serialize(generator, node, options);
+        } catch (JacksonException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 流式重写 (不构建 Node 树). 输入和输出共用同一个 options, 因此可通过 [JsonNodeConvertOptions#prettyPrint(boolean)] 重新格式化.
+    public void rewrite(InputStream inputStream, OutputStream outputStream, JsonRewriteRules rules, JsonNodeConvertOptions options) throws FormatToNodeException, NodeToFormatException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        var writeContext = createWriteContext(options);
+        try (var parser = jsonFactory.createParser(readContext, inputStream);
+             var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
+            new JsonRewriter(rules, options).rewrite(parser, generator);
+        } catch (JacksonException e) {
+            throwReadOrWrite(e);
+        }
+    }
+
+    /// 流式重写 (不构建 Node 树)
+    public void rewrite(Reader reader, Writer writer, JsonRewriteRules rules, JsonNodeConvertOptions options) throws FormatToNodeException, NodeToFormatException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        var writeContext = createWriteContext(options);
+        try (var parser = jsonFactory.createParser(readContext, reader);
+             var generator = jsonFactory.createGenerator(writeContext, writer)) {
+            new JsonRewriter(rules, options).rewrite(parser, generator);
+        } catch (JacksonException e) {
+            throwReadOrWrite(e);
+        }
+    }
+
+    /// 流式重写 (不构建 Node 树)
+    public byte[] rewriteBytes(byte[] bytes, JsonRewriteRules rules, JsonNodeConvertOptions options) throws FormatToNodeException, NodeToFormatException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        var writeContext = createWriteContext(options);
+        // 重写后的大小通常与输入相近
+        var outputStream = options.adaptiveOutputSizing() ? new ByteArrayOutputStream(bytes.length) : new ByteArrayOutputStream();
+        try (var parser = jsonFactory.createParser(readContext, bytes);
+             var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
+            new JsonRewriter(rules, options).rewrite(parser, generator);
+        } catch (JacksonException e) {
+            throwReadOrWrite(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /// 流式应用 RFC 7396 (JSON Merge Patch), 只物化 patch 涉及到的子树
+    public void mergePatch(InputStream inputStream, OutputStream outputStream, Node patch, JsonNodeConvertOptions options) throws FormatToNodeException, NodeToFormatException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        var writeContext = createWriteContext(options);
+        try (var parser = jsonFactory.createParser(readContext, inputStream);
+             var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
+            new JsonPatcher(options).mergePatch(parser, generator, patch);
+        } catch (JacksonException e) {
+            throwReadOrWrite(e);
+        }
+    }
+
+    /// 流式应用 RFC 6902 (JSON Patch), 只物化 patch 涉及到的子树
+    public void jsonPatch(InputStream inputStream, OutputStream outputStream, Node patch, JsonNodeConvertOptions options) throws FormatToNodeException, NodeToFormatException, JsonPatchException, IOException {
+        var operations = JsonPatchOperation.parseAll(patch);
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        var writeContext = createWriteContext(options);
+        try (var parser = jsonFactory.createParser(readContext, inputStream);
+             var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
+            new JsonPatcher(options).jsonPatch(parser, generator, operations);
+        } catch (JacksonException e) {
+            throwReadOrWrite(e);
+        }
+    }
+
+    /// 将输出直接送入 digest (不构建 String 或 byte[]), 一般配合 [JsonNodeConvertOptions#canonical(boolean)] 使用
+    public byte[] nodeToFormatDigest(Node node, MessageDigest digest, JsonNodeConvertOptions options) throws NodeToFormatException {
+        try (var outputStream = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            nodeToFormat(node, outputStream, UTF_8, options);
+        } catch (IOException e) {
+            throw new NodeToFormatException(e);
+        }
+        return digest.digest();
+    }
+
+    /// 只校验 (不构建 Node), 遵循 options 中的所有限制 以及 重复字段策略
+    public JsonValidationReport validate(byte[] bytes, JsonNodeConvertOptions options) throws FormatToNodeException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createValidateReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, bytes)) {
+            return new JsonValidator(options).validate(parser);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 只校验 (不构建 Node), 遵循 options 中的所有限制 以及 重复字段策略
+    public JsonValidationReport validate(InputStream inputStream, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createValidateReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, inputStream)) {
+            return new JsonValidator(options).validate(parser);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 直接读取为 double[] (不创建 Node), pointer 为 "" 时表示根
+    public double[] formatToDoubleArray(byte[] bytes, String pointer, JsonNodeConvertOptions options) throws FormatToNodeException {
+        var jsonPointer = compilePointer(pointer);
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, bytes)) {
+            return JsonPrimitiveArrayReader.readDoubleArray(parser, jsonPointer);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 直接读取为 double[] (不创建 Node), pointer 为 "" 时表示根
+    public double[] formatToDoubleArray(InputStream inputStream, String pointer, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        var jsonPointer = compilePointer(pointer);
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, inputStream)) {
+            return JsonPrimitiveArrayReader.readDoubleArray(parser, jsonPointer);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 直接读取为 long[] (不创建 Node), pointer 为 "" 时表示根
+    public long[] formatToLongArray(byte[] bytes, String pointer, JsonNodeConvertOptions options) throws FormatToNodeException {
+        var jsonPointer = compilePointer(pointer);
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, bytes)) {
+            return JsonPrimitiveArrayReader.readLongArray(parser, jsonPointer);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 直接读取为 long[] (不创建 Node), pointer 为 "" 时表示根
+    public long[] formatToLongArray(InputStream inputStream, String pointer, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        var jsonPointer = compilePointer(pointer);
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, inputStream)) {
+            return JsonPrimitiveArrayReader.readLongArray(parser, jsonPointer);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 直接读取为 int[] (不创建 Node), pointer 为 "" 时表示根
+    public int[] formatToIntArray(byte[] bytes, String pointer, JsonNodeConvertOptions options) throws FormatToNodeException {
+        var jsonPointer = compilePointer(pointer);
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, bytes)) {
+            return JsonPrimitiveArrayReader.readIntArray(parser, jsonPointer);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 直接读取为 int[] (不创建 Node), pointer 为 "" 时表示根
+    public int[] formatToIntArray(InputStream inputStream, String pointer, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        var jsonPointer = compilePointer(pointer);
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var parser = jsonFactory.createParser(readContext, inputStream)) {
+            return JsonPrimitiveArrayReader.readIntArray(parser, jsonPointer);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 直接写出 double[] (不创建 Node)
+    public void arrayToFormat(double[] array, OutputStream outputStream, JsonNodeConvertOptions options) throws NodeToFormatException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var writeContext = createWriteContext(options);
+        try (var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
+            generator.writeArray(array, 0, array.length);
+        } catch (JacksonException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 直接写出 double[] (不创建 Node)
+    public byte[] arrayToFormatBytes(double[] array, JsonNodeConvertOptions options) throws NodeToFormatException {
+        try (var outputStream = new ByteArrayOutputStream()) {
+            arrayToFormat(array, outputStream, options);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 直接写出 long[] (不创建 Node)
+    public void arrayToFormat(long[] array, OutputStream outputStream, JsonNodeConvertOptions options) throws NodeToFormatException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var writeContext = createWriteContext(options);
+        try (var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
+            generator.writeArray(array, 0, array.length);
+        } catch (JacksonException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 直接写出 long[] (不创建 Node)
+    public byte[] arrayToFormatBytes(long[] array, JsonNodeConvertOptions options) throws NodeToFormatException {
+        try (var outputStream = new ByteArrayOutputStream()) {
+            arrayToFormat(array, outputStream, options);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 直接写出 int[] (不创建 Node)
+    public void arrayToFormat(int[] array, OutputStream outputStream, JsonNodeConvertOptions options) throws NodeToFormatException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var writeContext = createWriteContext(options);
+        try (var generator = jsonFactory.createGenerator(writeContext, outputStream)) {
+            generator.writeArray(array, 0, array.length);
+        } catch (JacksonException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 直接写出 int[] (不创建 Node)
+    public byte[] arrayToFormatBytes(int[] array, JsonNodeConvertOptions options) throws NodeToFormatException {
+        try (var outputStream = new ByteArrayOutputStream()) {
+            arrayToFormat(array, outputStream, options);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new NodeToFormatException(e);
+        }
+    }
+
+    /// 通过索引读取 NDJSON 文件的第 recordIndex 条记录 (直接定位, 不读取之前的内容)
+    public Node ndjsonRecordToNode(NdjsonIndex index, long recordIndex, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        return ndjsonRecordsToNodes(index, recordIndex, 1, options).getFirst();
+    }
+
+    /// 通过索引读取 NDJSON 文件中 从 fromIndex 开始的 count 条记录 (一次读取整个区间)
+    public List<Node> ndjsonRecordsToNodes(NdjsonIndex index, long fromIndex, int count, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        var nodes = new ArrayList<Node>(count);
+        if (count <= 0) {
+            return nodes;
+        }
+        var start = index.recordStart(fromIndex);
+        var bytes = index.read(start, index.recordEnd(fromIndex + count - 1));
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        var deserializer = new JsonDeserializer(options);
+        // 所有记录共享同一截止时间
+        var checker = CancellationChecker.of(options);
+        for (var i = fromIndex; i < fromIndex + count; i++) {
+            var offset = (int) (index.recordStart(i) - start);
+            var length = (int) (index.recordEnd(i) - start) - offset;
+            try (var parser = jsonFactory.createParser(readContext, bytes, offset, length)) {
+                nodes.add(deserializer.deserialize(parser, checker));
+            } catch (JacksonException e) {
+                throw new FormatToNodeException(e);
+            }
+        }
+        return nodes;
+    }
+
+    /// 在 executor 上并行解析 NDJSON 文件.
+    /// ordered 为 true 时 按文件顺序在调用线程上回调 consumer, 否则在工作线程上回调 (consumer 必须线程安全)
+    public void ndjsonToNodes(Path file, Executor executor, boolean ordered, Consumer<Node> consumer, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        try (var fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new NdjsonParallelReader(createJsonFactory(options), createReadContext(options), options, executor, ordered, consumer).read(fileChannel);
+        }
+    }
+
+    /// 在 executor 上并行解析 bytes 中 [offset, offset + length) 的 NDJSON 内容, 参数同上
+    public void ndjsonToNodes(byte[] bytes, int offset, int length, Executor executor, boolean ordered, Consumer<Node> consumer, JsonNodeConvertOptions options) throws FormatToNodeException {
+        try {
+            new NdjsonParallelReader(createJsonFactory(options), createReadContext(options), options, executor, ordered, consumer).read(bytes, offset, length);
+        } catch (IOException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 以 Flow.Publisher 形式按需输出 (每块不超过 chunkSize 字节, 遵循下游的背压), 适用于非阻塞的响应体
+    public Flow.Publisher<ByteBuffer> nodeToFormatPublisher(Node node, int chunkSize, JsonNodeConvertOptions options) {
+        return new JsonNodePublisher(createJsonFactory(options), createWriteContext(options), node, options, chunkSize);
+    }
+
+    /// 流式比较两个输入 (不构建完整的 Node 树), 返回差异列表, 为空表示相等.
+    /// ignoreKeyOrder 为 true 时忽略对象的字段顺序, stopAtFirst 为 true 时在第一处差异处停止.
+    public List<JsonDifference> diff(InputStream oldInputStream, InputStream newInputStream, boolean ignoreKeyOrder, boolean stopAtFirst, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        var jsonFactory = createJsonFactory(options);
+        var readContext = createReadContext(options);
+        try (var oldParser = jsonFactory.createParser(readContext, oldInputStream);
+             var newParser = jsonFactory.createParser(readContext, newInputStream)) {
+            return new JsonDiffer(options, ignoreKeyOrder, stopAtFirst).diff(oldParser, newParser);
+        } catch (JacksonException e) {
+            throw new FormatToNodeException(e);
+        }
+    }
+
+    /// 流式判断两个输入在 JSON 语义上是否相等 (在第一处差异处停止)
+    public boolean jsonEquals(InputStream inputStream1, InputStream inputStream2, boolean ignoreKeyOrder, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        return diff(inputStream1, inputStream2, ignoreKeyOrder, true, options).isEmpty();
+    }
+
+    /// 批量解析 (UTF-8), 在调用线程上依次执行, 参数同下
+    public List<JsonBatchResult<Node>> formatToNodes(List<byte[]> documents, JsonNodeConvertOptions options) {
+        return formatToNodes(documents, null, options);
+    }
+
+    /// 批量解析 (UTF-8). 结果与输入一一对应, 单个文档解析失败只影响其自身的结果 (error 为 FormatToNodeException).
+    ///
+    /// 每块文档复用同一个会话 (见 [#newSession(JsonNodeConvertOptions)]), 以摊销 factory 和缓冲区的创建开销.
+    /// executor 不为 null 时 各块分发到 executor 上并行执行 (推荐 work-stealing 的 [java.util.concurrent.ForkJoinPool]).
+    public List<JsonBatchResult<Node>> formatToNodes(List<byte[]> documents, Executor executor, JsonNodeConvertOptions options) {
+        return JsonBatchRunner.run(documents, executor, () -> newSession(options), JsonNodeConvertSession::formatToNode);
+    }
+
+    /// 批量序列化 (UTF-8), 在调用线程上依次执行, 参数同下
+    public List<JsonBatchResult<byte[]>> nodesToFormatBytes(List<? extends Node> nodes, JsonNodeConvertOptions options) {
+        return nodesToFormatBytes(nodes, null, options);
+    }
+
+    /// 批量序列化 (UTF-8). 结果与输入一一对应, 单个节点序列化失败只影响其自身的结果 (error 为 NodeToFormatException).
+    /// 分块和并行方式同 [#formatToNodes(List, Executor, JsonNodeConvertOptions)]
+    public List<JsonBatchResult<byte[]>> nodesToFormatBytes(List<? extends Node> nodes, Executor executor, JsonNodeConvertOptions options) {
+        return JsonBatchRunner.run(nodes, executor, () -> newSession(options), JsonNodeConvertSession::nodeToFormatBytes);
+    }
+
+    /// 预热: 用已知的字段名和样例文档填充字节和字符符号表 (每个分段都会填充), 然后反复执行解析和序列化, 以触发 JIT 编译.
+    ///
+    /// 只走正常的转换路径, 不生成任何类, 因此同样适用于 CDS / AOT 的训练运行 (如 `-XX:AOTMode=record`).
+    ///
+    /// @param propertyNames   已知的字段名 (最多 6000 个, 超出时 Jackson 会清空符号表)
+    /// @param sampleDocuments 样例文档 (UTF-8)
+    /// @param iterations      每个样例文档的解析和序列化次数 (C2 编译阈值约为 10000 次调用)
+    public void warmUp(Collection<String> propertyNames, List<byte[]> sampleDocuments, int iterations, JsonNodeConvertOptions options) throws FormatToNodeException, NodeToFormatException {
+        if (propertyNames.size() > MAX_WARM_UP_PROPERTY_NAMES) {
+            throw new IllegalArgumentException("propertyNames 最多 " + MAX_WARM_UP_PROPERTY_NAMES + " 个 : " + propertyNames.size());
+        }
+        var documents = new ArrayList<byte[]>(sampleDocuments.size() + 1);
+        if (!propertyNames.isEmpty()) {
+            var seed = new ObjectNode();
+            for (var propertyName : propertyNames) {
+                seed.put(propertyName, NullNode.NULL);
+            }
+            documents.add(nodeToFormatBytes(seed, UTF_8, new JsonNodeConvertOptions()));
+        }
+        documents.addAll(sampleDocuments);
+        var strings = new ArrayList<String>(documents.size());
+        for (var document : documents) {
+            strings.add(new String(document, UTF_8));
+        }
+        // 填充符号表: 字节符号表按线程分段, 需要逐个填充
+        var readContext = createReadContext(options);
+        for (var byteSymbolCanonicalizer : _byteSymbolCanonicalizers) {
+            var jsonFactory = new LightJsonFactoryBuilder(options, byteSymbolCanonicalizer, _charSymbolRoots, _recyclerPool).build();
+            for (var document : documents) {
+                try (var parser = jsonFactory.createParser(readContext, document)) {
+                    new JsonDeserializer(options).deserialize(parser);
+                } catch (JacksonException e) {
+                    throw new FormatToNodeException(e);
+                }
+            }
+        }
+        for (var string : strings) {
+            formatToNode(string, options);
+        }
+        // 触发 JIT 编译
+        for (int i = 0; i < iterations; i++) {
+            for (int j = 0; j < documents.size(); j++) {
+                var node = formatToNode(documents.get(j), UTF_8, options);
+                nodeToFormatBytes(node, UTF_8, options);
+                formatToNode(strings.get(j), options);
+                nodeToFormatString(node, options);
+            }
+        }
+    }
+
+    /// 创建一个转换会话 (非线程安全, 由单个线程持有), 用于以相同的 options 反复转换大量小文档
+    public JsonNodeConvertSession newSession(JsonNodeConvertOptions options) {
+        var jsonFactory = new LightJsonFactoryBuilder(options, byteSymbolCanonicalizer(), _charSymbolRoots, new SessionRecyclerPool()).build();
+        return new JsonNodeConvertSession(options, jsonFactory, createReadContext(options), createWriteContext(options), _gzipPool);
+    }
+
+    static void serialize(JsonGenerator generator, Node node, JsonNodeConvertOptions options) {
+        var checker = CancellationChecker.of(options);
+        if (checker != null) {
+            checker.checkNow();
+        }
+        if (options.canonical()) {
+            JsonCanonicalSerializer.serialize(generator, node, checker);
+        } else {
+            JsonSerializer.serialize(generator, node, SerializedNameCache.isApplicable(options), checker);
+        }
+    }
+
+    private ByteQuadsCanonicalizer byteSymbolCanonicalizer() {
+        return _byteSymbolCanonicalizers[StripedRecyclerPool.stripeIndex(_stripeMask)];
+    }
+
     private TokenStreamFactory createJsonFactory(JsonNodeConvertOptions options) {
-        return new LightJsonFactoryBuilder(options, _byteSymbolCanonicalizer, _recyclerPool).build();
+        return new LightJsonFactoryBuilder(options, byteSymbolCanonicalizer(), _charSymbolRoots, _recyclerPool).build();
+    }
+
+    private TokenStreamFactory createStacklessJsonFactory(JsonNodeConvertOptions options) {
+        return new LightJsonFactoryBuilder(options, byteSymbolCanonicalizer(), _charSymbolRoots, _recyclerPool).stacklessErrors(true).build();
     }
 
     private ObjectReadContext createReadContext(JsonNodeConvertOptions options) {
         return ObjectReadContext.empty();
     }
 
+    private ObjectReadContext createValidateReadContext(JsonNodeConvertOptions options) {
+        if (options.duplicateFieldPolicy() == DuplicateFieldPolicy.THROW) {
+            return STRICT_DUPLICATE_OBJECT_READ_CONTEXT;
+        }
+        return ObjectReadContext.empty();
+    }
+
     private ObjectWriteContext createWriteContext(JsonNodeConvertOptions options) {
-        if (options.prettyPrint()) {
+        if (options.prettyPrint() && !options.canonical()) {
             return PRETTY_PRINT_OBJECT_WRITE_CONTEXT;
         }
         return ObjectWriteContext.empty();
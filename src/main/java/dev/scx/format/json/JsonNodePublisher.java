@@ -0,0 +1,258 @@
+package dev.scx.format.json;
+
+import dev.scx.format.NodeToFormatException;
+import dev.scx.node.Node;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.TokenStreamFactory;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// 以 [Flow.Publisher] 形式按需输出序列化结果.
+///
+/// 每个 [ByteBuffer] 不超过 chunkSize 字节. 只在下游 request 时才继续序列化,
+/// 两次 request 之间 序列化状态 (见 [ResumableJsonSerializer]) 会被挂起, 不阻塞任何线程.
+/// 序列化在调用 request 的线程上执行. 只支持一个订阅者.
+///
+/// 注意: canonical 模式需要对字段排序, 仍会先完整序列化再分块输出. gzip 选项在此不生效.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonNodePublisher implements Flow.Publisher<ByteBuffer> {
+
+    private final TokenStreamFactory _jsonFactory;
+    private final ObjectWriteContext _writeContext;
+    private final Node _node;
+    private final JsonNodeConvertOptions _options;
+    private final int _chunkSize;
+    private final AtomicBoolean _subscribed;
+
+    public JsonNodePublisher(TokenStreamFactory jsonFactory, ObjectWriteContext writeContext, Node node, JsonNodeConvertOptions options, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize 必须大于 0");
+        }
+        this._jsonFactory = jsonFactory;
+        this._writeContext = writeContext;
+        this._node = node;
+        this._options = options;
+        this._chunkSize = chunkSize;
+        this._subscribed = new AtomicBoolean();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (!_subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    // 已拒绝, 忽略
+                }
+
+                @Override
+                public void cancel() {
+                    // 已拒绝, 忽略
+                }
+            });
+            subscriber.onError(new IllegalStateException("只支持一个订阅者"));
+            return;
+        }
+        subscriber.onSubscribe(new ChunkSubscription(subscriber));
+    }
+
+    private final class ChunkSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> _subscriber;
+        private final AtomicLong _demand;
+        private final AtomicInteger _wip;
+        private volatile boolean _cancelled;
+        private volatile Throwable _requestError;
+
+        // 以下字段只在 _drain 中访问 (由 _wip 保证单线程)
+        private ChunkOutputStream _output;
+        private JsonGenerator _generator;
+        private ResumableJsonSerializer _serializer;
+        private boolean _writeFinished;
+        private boolean _terminated;
+
+        private ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this._subscriber = subscriber;
+            this._demand = new AtomicLong();
+            this._wip = new AtomicInteger();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                _requestError = new IllegalArgumentException("request 的数量必须大于 0 (Reactive Streams §3.9)");
+            } else {
+                _demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            }
+            _drain();
+        }
+
+        @Override
+        public void cancel() {
+            _cancelled = true;
+            _drain();
+        }
+
+        private void _drain() {
+            if (_wip.getAndIncrement() != 0) {
+                return;
+            }
+            var missed = 1;
+            do {
+                while (!_terminated) {
+                    if (_cancelled) {
+                        _terminate();
+                        break;
+                    }
+                    if (_requestError != null) {
+                        _terminate();
+                        _subscriber.onError(_requestError);
+                        break;
+                    }
+                    if (_demand.get() == 0) {
+                        break;
+                    }
+                    ByteBuffer chunk;
+                    try {
+                        chunk = _nextChunk();
+                    } catch (JacksonException e) {
+                        _terminate();
+                        _subscriber.onError(new NodeToFormatException(e));
+                        break;
+                    } catch (Throwable e) {
+                        // 不能让异常逃出 request, 否则 _wip 无法归零, 之后的 request 和 cancel 都会被忽略
+                        _terminate();
+                        _subscriber.onError(e);
+                        break;
+                    }
+                    if (chunk == null) {
+                        _terminate();
+                        _subscriber.onComplete();
+                        break;
+                    }
+                    if (_demand.get() != Long.MAX_VALUE) {
+                        _demand.decrementAndGet();
+                    }
+                    try {
+                        _subscriber.onNext(chunk);
+                    } catch (Throwable e) {
+                        _terminate();
+                        _subscriber.onError(e);
+                        break;
+                    }
+                }
+                missed = _wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /// 返回 null 表示已全部输出
+        private ByteBuffer _nextChunk() throws JacksonException {
+            if (_output == null) {
+                _output = new ChunkOutputStream();
+                _generator = _jsonFactory.createGenerator(_writeContext, _output);
+                if (_options.canonical()) {
+                    JsonCanonicalSerializer.serialize(_generator, _node);
+                    _finishWrite();
+                } else {
+                    _serializer = new ResumableJsonSerializer(_generator, _node, SerializedNameCache.isApplicable(_options));
+                }
+            }
+            while (!_writeFinished && _output.size() < _chunkSize) {
+                if (!_serializer.writeNext()) {
+                    _finishWrite();
+                    break;
+                }
+                var buffered = _generator.streamWriteOutputBuffered();
+                if (buffered < 0 || _output.size() + buffered >= _chunkSize) {
+                    _generator.flush();
+                }
+            }
+            return _output.size() > 0 ? _output.take(_chunkSize) : null;
+        }
+
+        private void _finishWrite() {
+            // close 会把剩余内容刷新到 _output, 并归还 generator 的缓冲区
+            _generator.close();
+            _generator = null;
+            _serializer = null;
+            _writeFinished = true;
+        }
+
+        private void _terminate() {
+            _terminated = true;
+            if (_generator != null) {
+                try {
+                    _generator.close();
+                } catch (JacksonException _) {
+                    // 已经终止, 忽略
+                }
+                _generator = null;
+            }
+            _serializer = null;
+            _output = null;
+        }
+
+    }
+
+    /// 暂存 generator 输出的字节, 并按块取出
+    private static final class ChunkOutputStream extends OutputStream {
+
+        private byte[] _buf = new byte[8192];
+        private int _start;
+        private int _end;
+
+        public int size() {
+            return _end - _start;
+        }
+
+        /// 取出最多 max 个字节
+        public ByteBuffer take(int max) {
+            var length = Math.min(max, size());
+            var chunk = ByteBuffer.wrap(Arrays.copyOfRange(_buf, _start, _start + length));
+            _start += length;
+            if (_start == _end) {
+                _start = 0;
+                _end = 0;
+            }
+            return chunk;
+        }
+
+        @Override
+        public void write(int b) {
+            _ensureCapacity(1);
+            _buf[_end++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            _ensureCapacity(len);
+            System.arraycopy(b, off, _buf, _end, len);
+            _end += len;
+        }
+
+        private void _ensureCapacity(int len) {
+            if (_end + len <= _buf.length) {
+                return;
+            }
+            var size = size();
+            // 先尝试压缩, 不够再扩容
+            var newBuf = size + len <= _buf.length ? _buf : new byte[Math.max(_buf.length * 2, size + len)];
+            System.arraycopy(_buf, _start, newBuf, 0, size);
+            _buf = newBuf;
+            _start = 0;
+            _end = size;
+        }
+
+    }
+
+}
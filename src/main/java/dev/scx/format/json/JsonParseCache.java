@@ -0,0 +1,130 @@
+package dev.scx.format.json;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.node.Node;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/// 解析结果缓存, 用于反复解析相同的文件或相同的 byte[].
+///
+/// - 文件按 (绝对路径, 修改时间, 大小, options) 缓存. 修改时间精度内的原样大小的修改无法被察觉.
+/// - byte[] 按 (内容哈希, 长度, options) 缓存, 并保存一份输入的副本, 命中时逐字节比较, 因此哈希冲突不会返回错误的结果.
+/// - 按估算的常驻字节数 (见 [JsonNodeConvertOptions#maxRetainedBytes(long)]) 进行 LRU 淘汰, 超过容量的单个结果不缓存.
+/// - 每次返回缓存树的深拷贝, 调用方可以随意修改.
+/// - 设置了 [JsonNodeConvertOptions#stringSink(JsonStringSink)] 时不缓存.
+///
+/// 线程安全. 解析在锁外进行, 同一个 key 的并发未命中可能各自解析一次.
+///
+/// @author scx567888
+/// @version 0.0.1
+public final class JsonParseCache {
+
+    private final JsonNodeConverter _converter;
+    private final long _maxRetainedBytes;
+    private final LinkedHashMap<Object, Entry> _entries;
+    private long _retainedBytes;
+    private long _hits;
+    private long _misses;
+    private long _evictions;
+
+    public JsonParseCache(JsonNodeConverter converter, long maxRetainedBytes) {
+        this._converter = converter;
+        this._maxRetainedBytes = maxRetainedBytes;
+        this._entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public Node formatToNode(File file, JsonNodeConvertOptions options) throws FormatToNodeException, IOException {
+        if (options.stringSink() != null) {
+            _countMiss();
+            return _converter.formatToNode(file, UTF_8, options);
+        }
+        var attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        var key = new FileKey(file.getAbsolutePath(), attributes.lastModifiedTime().toMillis(), attributes.size(), options.toParseKey());
+        var cached = _get(key, null);
+        if (cached != null) {
+            return NodeHelper.deepCopy(cached);
+        }
+        var node = _converter.formatToNode(file, UTF_8, options);
+        _put(key, new Entry(node, null, NodeHelper.estimateRetainedBytes(node)));
+        return NodeHelper.deepCopy(node);
+    }
+
+    public Node formatToNode(byte[] bytes, JsonNodeConvertOptions options) throws FormatToNodeException {
+        if (options.stringSink() != null) {
+            _countMiss();
+            return _converter.formatToNode(bytes, UTF_8, options);
+        }
+        var key = new BytesKey(Arrays.hashCode(bytes), bytes.length, options.toParseKey());
+        var cached = _get(key, bytes);
+        if (cached != null) {
+            return NodeHelper.deepCopy(cached);
+        }
+        var node = _converter.formatToNode(bytes, UTF_8, options);
+        var source = bytes.clone();
+        _put(key, new Entry(node, source, NodeHelper.estimateRetainedBytes(node) + 16 + source.length));
+        return NodeHelper.deepCopy(node);
+    }
+
+    public synchronized JsonParseCacheStats stats() {
+        return new JsonParseCacheStats(_hits, _misses, _evictions, _entries.size(), _retainedBytes);
+    }
+
+    public synchronized void clear() {
+        _entries.clear();
+        _retainedBytes = 0;
+    }
+
+    /// source 不为 null 时 需与条目保存的输入一致才算命中
+    private synchronized Node _get(Object key, byte[] source) {
+        var entry = _entries.get(key);
+        if (entry != null && (source == null || Arrays.equals(entry.source, source))) {
+            _hits++;
+            return entry.node;
+        }
+        _misses++;
+        return null;
+    }
+
+    private synchronized void _put(Object key, Entry entry) {
+        if (entry.retainedBytes > _maxRetainedBytes) {
+            return;
+        }
+        var old = _entries.put(key, entry);
+        if (old != null) {
+            _retainedBytes -= old.retainedBytes;
+        }
+        _retainedBytes += entry.retainedBytes;
+        // 按访问顺序 从最久未使用的开始淘汰
+        var iterator = _entries.values().iterator();
+        while (_retainedBytes > _maxRetainedBytes) {
+            var eldest = iterator.next();
+            iterator.remove();
+            _retainedBytes -= eldest.retainedBytes;
+            _evictions++;
+        }
+    }
+
+    private synchronized void _countMiss() {
+        _misses++;
+    }
+
+    private record FileKey(String path, long lastModified, long size, JsonNodeConvertOptions.ParseKey options) {
+
+    }
+
+    private record BytesKey(int hash, int length, JsonNodeConvertOptions.ParseKey options) {
+
+    }
+
+    private record Entry(Node node, byte[] source, long retainedBytes) {
+
+    }
+
+}
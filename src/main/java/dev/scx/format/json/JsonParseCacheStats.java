@@ -0,0 +1,14 @@
+package dev.scx.format.json;
+
+/// [JsonParseCache] 的统计
+///
+/// @param hits          命中次数
+/// @param misses        未命中次数 (包括不可缓存的调用)
+/// @param evictions     因容量不足被淘汰的条目数
+/// @param entryCount    当前条目数
+/// @param retainedBytes 当前条目估算的常驻字节数
+/// @author scx567888
+/// @version 0.0.1
+public record JsonParseCacheStats(long hits, long misses, long evictions, int entryCount, long retainedBytes) {
+
+}
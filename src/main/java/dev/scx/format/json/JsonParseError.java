@@ -0,0 +1,34 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.exc.StreamConstraintsException;
+import tools.jackson.core.exc.UnexpectedEndOfInputException;
+
+/// 解析错误
+///
+/// @param kind    类别
+/// @param offset  出错位置 (byte[] 输入为字节偏移, String 输入为字符偏移), 未知时为 -1
+/// @param line    行号 (从 1 开始), 未知时为 -1
+/// @param column  列号 (从 1 开始), 未知时为 -1
+/// @param message 错误信息 (不含位置描述)
+/// @author scx567888
+/// @version 0.0.1
+public record JsonParseError(JsonParseErrorKind kind, long offset, int line, int column, String message) {
+
+    static JsonParseError of(JacksonException e) {
+        var kind = switch (e) {
+            case StacklessReadException s -> s.kind();
+            case JsonCancellationException c -> c.timedOut() ? JsonParseErrorKind.TIMED_OUT : JsonParseErrorKind.CANCELLED;
+            case StreamConstraintsException _ -> JsonParseErrorKind.LIMIT_EXCEEDED;
+            case UnexpectedEndOfInputException _ -> JsonParseErrorKind.UNEXPECTED_EOF;
+            default -> JsonParseErrorKind.SYNTAX;
+        };
+        var location = e.getLocation();
+        if (location == null) {
+            return new JsonParseError(kind, -1, -1, -1, e.getOriginalMessage());
+        }
+        var offset = location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset();
+        return new JsonParseError(kind, offset, location.getLineNr(), location.getColumnNr(), e.getOriginalMessage());
+    }
+
+}
@@ -0,0 +1,27 @@
+package dev.scx.format.json;
+
+/// 解析错误的类别
+///
+/// @author scx567888
+/// @version 0.0.1
+public enum JsonParseErrorKind {
+
+    /// 语法错误 (非法字符, 非法 token, 多余内容 等)
+    SYNTAX,
+
+    /// 输入意外结束 (包括空输入)
+    UNEXPECTED_EOF,
+
+    /// 超过限制 (嵌套深度, 长度, 节点数量 等)
+    LIMIT_EXCEEDED,
+
+    /// 重复字段 (见 [DuplicateFieldPolicy#THROW])
+    DUPLICATE_FIELD,
+
+    /// 超时
+    TIMED_OUT,
+
+    /// 被取消
+    CANCELLED
+
+}
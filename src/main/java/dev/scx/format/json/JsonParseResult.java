@@ -0,0 +1,18 @@
+package dev.scx.format.json;
+
+import dev.scx.node.Node;
+
+/// 解析结果, node 和 error 有且只有一个不为 null
+///
+/// @param node  解析结果
+/// @param error 解析失败时的错误
+/// @author scx567888
+/// @version 0.0.1
+/// @see JsonNodeConverter#tryFormatToNode(byte[], JsonNodeConvertOptions)
+public record JsonParseResult(Node node, JsonParseError error) {
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+}
@@ -0,0 +1,13 @@
+package dev.scx.format.json;
+
+/// 应用 JSON Patch 失败 (如 路径不存在, test 操作不通过, patch 文档无效)
+///
+/// @author scx567888
+/// @version 0.0.1
+public class JsonPatchException extends Exception {
+
+    public JsonPatchException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,111 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+import tools.jackson.core.JsonPointer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/// RFC 6902 操作
+///
+/// @param path 已拆分的 JSON Pointer
+/// @param from 已拆分的 JSON Pointer (仅 move/copy)
+/// @author scx567888
+/// @version 0.0.1
+record JsonPatchOperation(Type type, List<String> path, List<String> from, Node value) {
+
+    enum Type {
+        ADD,
+        REMOVE,
+        REPLACE,
+        MOVE,
+        COPY,
+        TEST
+    }
+
+    public static List<JsonPatchOperation> parseAll(Node patch) throws JsonPatchException {
+        if (!(patch instanceof ArrayNode arrayNode)) {
+            throw new JsonPatchException("JSON Patch 必须是数组");
+        }
+        var operations = new ArrayList<JsonPatchOperation>(arrayNode.size());
+        for (var element : arrayNode) {
+            operations.add(parse(element));
+        }
+        return operations;
+    }
+
+    public static JsonPatchOperation parse(Node node) throws JsonPatchException {
+        if (!(node instanceof ObjectNode objectNode)) {
+            throw new JsonPatchException("JSON Patch 操作必须是对象");
+        }
+        var op = requireString(objectNode, "op");
+        var type = switch (op) {
+            case "add" -> Type.ADD;
+            case "remove" -> Type.REMOVE;
+            case "replace" -> Type.REPLACE;
+            case "move" -> Type.MOVE;
+            case "copy" -> Type.COPY;
+            case "test" -> Type.TEST;
+            default -> throw new JsonPatchException("未知的 op: \"" + op + "\"");
+        };
+        var path = parsePointer(requireString(objectNode, "path"));
+        var from = switch (type) {
+            case MOVE, COPY -> parsePointer(requireString(objectNode, "from"));
+            default -> null;
+        };
+        var value = switch (type) {
+            case ADD, REPLACE, TEST -> {
+                var v = objectNode.get("value");
+                if (v == null) {
+                    throw new JsonPatchException("缺少字段: \"value\"");
+                }
+                yield v;
+            }
+            default -> null;
+        };
+        if (type == Type.MOVE && from.size() < path.size() && path.subList(0, from.size()).equals(from)) {
+            throw new JsonPatchException("不能将值移动到其自身的子节点中");
+        }
+        return new JsonPatchOperation(type, path, from, value);
+    }
+
+    public static List<String> parsePointer(String pointer) throws JsonPatchException {
+        JsonPointer p;
+        try {
+            p = JsonPointer.compile(pointer);
+        } catch (IllegalArgumentException e) {
+            throw new JsonPatchException("无效的 JSON Pointer: \"" + pointer + "\"");
+        }
+        var tokens = new ArrayList<String>(p.length());
+        while (!p.matches()) {
+            tokens.add(p.getMatchingProperty());
+            p = p.tail();
+        }
+        return tokens;
+    }
+
+    /// 是否可能是数组下标 (此时需要物化父容器, 因为下标会随插入/删除而偏移)
+    public static boolean isIndexLike(String token) {
+        if (token.equals("-")) {
+            return true;
+        }
+        if (token.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            var c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String requireString(ObjectNode objectNode, String name) throws JsonPatchException {
+        if (objectNode.get(name) instanceof StringNode stringNode) {
+            return stringNode.value();
+        }
+        throw new JsonPatchException("缺少字段或类型错误: \"" + name + "\"");
+    }
+
+}
@@ -0,0 +1,403 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
+
+import java.util.*;
+
+import static dev.scx.format.json.JacksonHelper.copyCurrentStructureExact;
+import static dev.scx.format.json.JsonSerializer.serialize;
+import static tools.jackson.core.JsonToken.START_OBJECT;
+
+/// ### 关于流式 Patch
+/// 源文档逐 token 地复制到输出, 只有 patch 涉及到的子树才会被物化为 Node.
+///
+/// - RFC 7396 (Merge Patch): 沿 patch 中的对象逐层下降, 只物化被替换的值.
+/// - RFC 6902 (JSON Patch): 每个操作先计算一个 "锚点" (对象成员为其自身, 数组下标为其父容器,
+///   move/copy 为两者的公共前缀), 互为前缀的锚点合并后彼此不相交, 因此可以各自独立地按原顺序应用.
+///   路径以下标结尾 (或跨越不同分支的 move/copy) 时物化的子树会更大, 锚点为根时即退化为整体物化.
+///
+/// 递归深度只和 patch 的深度有关, 未涉及的子树由 [JacksonHelper#copyCurrentStructureExact(JsonParser, JsonGenerator, CancellationChecker)] 直接复制.
+/// 注意 应用失败时 输出中可能已经写入了部分内容.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonPatcher {
+
+    private final JsonNodeConvertOptions _options;
+    private final JsonDeserializer _deserializer;
+    // 每次调用创建, 整个调用共享同一截止时间
+    private CancellationChecker _checker;
+
+    public JsonPatcher(JsonNodeConvertOptions options) {
+        this._options = options;
+        // 物化的子树会被原地修改, 不能共享节点
+        this._deserializer = new JsonDeserializer(options, false);
+    }
+
+    public void mergePatch(JsonParser p, JsonGenerator g, Node patch) throws JacksonException {
+        _checker = CancellationChecker.of(_options);
+        _firstToken(p);
+        if (patch instanceof ObjectNode patchObject && p.currentToken() == START_OBJECT) {
+            _mergeObject(p, g, patchObject);
+        } else {
+            p.skipChildren();
+            serialize(g, _mergeToEmpty(patch), false, _checker);
+        }
+        _tailToken(p);
+    }
+
+    public void jsonPatch(JsonParser p, JsonGenerator g, List<JsonPatchOperation> operations) throws JacksonException, JsonPatchException {
+        var root = PatchTarget.of(operations);
+        _checker = CancellationChecker.of(_options);
+        _firstToken(p);
+        if (root.operations != null) {
+            var node = _apply(root.operations, _deserializer.deserializeValue(p, _checker));
+            if (node == null) {
+                throw new JsonPatchException("不能移除根节点");
+            }
+            serialize(g, node, false, _checker);
+        } else if (root.children.isEmpty()) {
+            copyCurrentStructureExact(p, g, _checker);
+        } else if (p.currentToken().isStructStart()) {
+            _patchContainer(p, g, root);
+        } else {
+            throw new JsonPatchException("路径不存在: " + root.children.keySet());
+        }
+        _tailToken(p);
+    }
+
+    // ********************* RFC 7396 *********************
+
+    private void _mergeObject(JsonParser p, JsonGenerator g, ObjectNode patch) throws JacksonException {
+        g.writeStartObject();
+        var handled = new HashSet<String>();
+        String propName;
+        while ((propName = p.nextName()) != null) {
+            if (_checker != null) {
+                _checker.check();
+            }
+            var t = p.nextToken();
+            var patchValue = patch.get(propName);
+            if (patchValue == null) {
+                g.writeName(propName);
+                copyCurrentStructureExact(p, g, _checker);
+                continue;
+            }
+            handled.add(propName);
+            if (patchValue instanceof NullNode) {
+                p.skipChildren();
+                continue;
+            }
+            g.writeName(propName);
+            if (patchValue instanceof ObjectNode patchObject && t == START_OBJECT) {
+                _mergeObject(p, g, patchObject);
+            } else {
+                p.skipChildren();
+                serialize(g, _mergeToEmpty(patchValue), false, _checker);
+            }
+        }
+        // 源文档中不存在的字段
+        for (var field : patch) {
+            if (!handled.contains(field.getKey()) && !(field.getValue() instanceof NullNode)) {
+                g.writeName(field.getKey());
+                serialize(g, _mergeToEmpty(field.getValue()), false, _checker);
+            }
+        }
+        g.writeEndObject();
+    }
+
+    /// 目标不存在 (或不是对象) 时的 MergePatch 结果
+    private static Node _mergeToEmpty(Node patch) {
+        if (!(patch instanceof ObjectNode patchObject)) {
+            return patch;
+        }
+        var result = new ObjectNode();
+        for (var field : patchObject) {
+            if (!(field.getValue() instanceof NullNode)) {
+                result.put(field.getKey(), _mergeToEmpty(field.getValue()));
+            }
+        }
+        return result;
+    }
+
+    // ********************* RFC 6902 *********************
+
+    /// 当前 token 为 START_OBJECT 或 START_ARRAY, 且 target 不是锚点
+    private void _patchContainer(JsonParser p, JsonGenerator g, PatchTarget target) throws JacksonException, JsonPatchException {
+        var visited = new HashSet<String>();
+        if (p.currentToken() == START_OBJECT) {
+            g.writeStartObject();
+            String propName;
+            while ((propName = p.nextName()) != null) {
+                if (_checker != null) {
+                    _checker.check();
+                }
+                p.nextToken();
+                var child = target.children.get(propName);
+                if (child == null) {
+                    g.writeName(propName);
+                    copyCurrentStructureExact(p, g, _checker);
+                    continue;
+                }
+                visited.add(propName);
+                _patchChild(p, g, propName, child);
+            }
+            // 源文档中不存在的成员 (只允许 add 之类的操作)
+            for (var entry : target.children.entrySet()) {
+                if (visited.contains(entry.getKey())) {
+                    continue;
+                }
+                var child = entry.getValue();
+                if (child.operations == null) {
+                    throw new JsonPatchException("路径不存在: " + entry.getKey());
+                }
+                var node = _apply(child.operations, null);
+                if (node != null) {
+                    g.writeName(entry.getKey());
+                    serialize(g, node, false, _checker);
+                }
+            }
+            g.writeEndObject();
+        } else {
+            g.writeStartArray();
+            var index = 0;
+            JsonToken t;
+            while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+                if (_checker != null) {
+                    _checker.check();
+                }
+                if (t == null) { // unexpected end-of-input
+                    throw new StreamReadException(p, "Unexpected end-of-input");
+                }
+                var key = String.valueOf(index);
+                index++;
+                var child = target.children.get(key);
+                if (child == null) {
+                    copyCurrentStructureExact(p, g, _checker);
+                    continue;
+                }
+                visited.add(key);
+                _patchChild(p, g, null, child);
+            }
+            if (visited.size() != target.children.size()) {
+                throw new JsonPatchException("路径不存在: " + target.children.keySet());
+            }
+            g.writeEndArray();
+        }
+    }
+
+    private void _patchChild(JsonParser p, JsonGenerator g, String propName, PatchTarget child) throws JacksonException, JsonPatchException {
+        if (child.operations != null) {
+            var node = _apply(child.operations, _deserializer.deserializeValue(p, _checker));
+            if (node != null) {
+                if (propName != null) {
+                    g.writeName(propName);
+                }
+                serialize(g, node, false, _checker);
+            }
+            return;
+        }
+        if (!p.currentToken().isStructStart()) {
+            throw new JsonPatchException("路径不存在: " + child.children.keySet());
+        }
+        if (propName != null) {
+            g.writeName(propName);
+        }
+        _patchContainer(p, g, child);
+    }
+
+    /// 依次应用操作, root 为 null 表示 锚点处的值不存在, 返回 null 表示 应用后不存在
+    private static Node _apply(List<AnchoredOperation> operations, Node root) throws JsonPatchException {
+        for (var op : operations) {
+            root = switch (op.type()) {
+                // 插入副本, 之后的操作可能修改插入的值, 不能改动调用方的 patch
+                case ADD -> _add(root, op.path(), NodeHelper.deepCopy(op.value()));
+                case REMOVE -> _remove(root, op.path());
+                case REPLACE -> _replace(root, op.path(), NodeHelper.deepCopy(op.value()));
+                case MOVE -> {
+                    var value = _get(root, op.from());
+                    yield _add(_remove(root, op.from()), op.path(), value);
+                }
+                case COPY -> _add(root, op.path(), NodeHelper.deepCopy(_get(root, op.from())));
+                case TEST -> {
+                    if (!NodeHelper.jsonEquals(_get(root, op.path()), op.value())) {
+                        throw new JsonPatchException("test 操作未通过: " + op.path());
+                    }
+                    yield root;
+                }
+            };
+        }
+        return root;
+    }
+
+    private static Node _get(Node root, List<String> path) throws JsonPatchException {
+        if (root == null) {
+            throw new JsonPatchException("路径不存在: " + path);
+        }
+        var node = root;
+        for (var token : path) {
+            var child = switch (node) {
+                case ObjectNode objectNode -> objectNode.get(token);
+                case ArrayNode arrayNode -> {
+                    var index = _index(arrayNode, token, false);
+                    yield index < arrayNode.size() ? arrayNode.get(index) : null;
+                }
+                default -> null;
+            };
+            if (child == null) {
+                throw new JsonPatchException("路径不存在: " + path);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private static Node _add(Node root, List<String> path, Node value) throws JsonPatchException {
+        if (path.isEmpty()) {
+            return value;
+        }
+        var parent = _get(root, path.subList(0, path.size() - 1));
+        var last = path.getLast();
+        switch (parent) {
+            case ObjectNode objectNode -> objectNode.put(last, value);
+            case ArrayNode arrayNode -> arrayNode.add(_index(arrayNode, last, true), value);
+            default -> throw new JsonPatchException("父节点不是容器: " + path);
+        }
+        return root;
+    }
+
+    private static Node _remove(Node root, List<String> path) throws JsonPatchException {
+        _get(root, path);
+        if (path.isEmpty()) {
+            return null;
+        }
+        var parent = _get(root, path.subList(0, path.size() - 1));
+        var last = path.getLast();
+        switch (parent) {
+            case ObjectNode objectNode -> objectNode.remove(last);
+            case ArrayNode arrayNode -> arrayNode.remove(_index(arrayNode, last, false));
+            default -> throw new JsonPatchException("父节点不是容器: " + path);
+        }
+        return root;
+    }
+
+    private static Node _replace(Node root, List<String> path, Node value) throws JsonPatchException {
+        _get(root, path);
+        if (path.isEmpty()) {
+            return value;
+        }
+        var parent = _get(root, path.subList(0, path.size() - 1));
+        var last = path.getLast();
+        switch (parent) {
+            case ObjectNode objectNode -> objectNode.put(last, value);
+            case ArrayNode arrayNode -> arrayNode.set(_index(arrayNode, last, false), value);
+            default -> throw new JsonPatchException("父节点不是容器: " + path);
+        }
+        return root;
+    }
+
+    private static int _index(ArrayNode arrayNode, String token, boolean forAdd) throws JsonPatchException {
+        if (forAdd && token.equals("-")) {
+            return arrayNode.size();
+        }
+        if (!JsonPatchOperation.isIndexLike(token) || token.equals("-") || token.length() > 1 && token.charAt(0) == '0') {
+            throw new JsonPatchException("无效的数组下标: \"" + token + "\"");
+        }
+        int index;
+        try {
+            index = Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw new JsonPatchException("无效的数组下标: \"" + token + "\"");
+        }
+        var max = forAdd ? arrayNode.size() : arrayNode.size() - 1;
+        if (index > max) {
+            throw new JsonPatchException("数组下标越界: " + index);
+        }
+        return index;
+    }
+
+    private static void _firstToken(JsonParser p) throws JacksonException {
+        var firstToken = p.nextToken();
+        if (firstToken == null) {
+            throw new StreamReadException(p, "未检测到任何有效内容");
+        }
+    }
+
+    private static void _tailToken(JsonParser p) throws JacksonException {
+        var tailToken = p.nextToken();
+        if (tailToken != null) {
+            throw new StreamReadException(p, "检测到多余内容");
+        }
+    }
+
+    /// 相对于锚点的操作
+    private record AnchoredOperation(JsonPatchOperation.Type type, List<String> path, List<String> from, Node value) {
+
+    }
+
+    /// 路径前缀树, operations 非 null 表示此处为锚点 (锚点下不再有子节点)
+    private static final class PatchTarget {
+
+        final Map<String, PatchTarget> children = new HashMap<>();
+        List<AnchoredOperation> operations;
+
+        static PatchTarget of(List<JsonPatchOperation> operations) {
+            // 1, 计算每个操作的锚点
+            var anchors = new ArrayList<List<String>>(operations.size());
+            for (var op : operations) {
+                var anchor = _anchorOf(op.path());
+                if (op.from() != null) {
+                    anchor = _commonPrefix(anchor, _anchorOf(op.from()));
+                }
+                anchors.add(anchor);
+            }
+            // 2, 合并互为前缀的锚点, 并按原顺序挂载操作
+            var root = new PatchTarget();
+            for (int i = 0; i < operations.size(); i++) {
+                var anchor = anchors.get(i);
+                for (var other : anchors) {
+                    if (other.size() < anchor.size() && anchor.subList(0, other.size()).equals(other)) {
+                        anchor = other;
+                    }
+                }
+                var target = root;
+                for (var token : anchor) {
+                    target = target.children.computeIfAbsent(token, _ -> new PatchTarget());
+                }
+                if (target.operations == null) {
+                    target.operations = new ArrayList<>();
+                }
+                var op = operations.get(i);
+                var n = anchor.size();
+                target.operations.add(new AnchoredOperation(op.type(),
+                    op.path().subList(n, op.path().size()),
+                    op.from() != null ? op.from().subList(n, op.from().size()) : null,
+                    op.value()));
+            }
+            return root;
+        }
+
+        private static List<String> _anchorOf(List<String> path) {
+            if (!path.isEmpty() && JsonPatchOperation.isIndexLike(path.getLast())) {
+                return path.subList(0, path.size() - 1);
+            }
+            return path;
+        }
+
+        private static List<String> _commonPrefix(List<String> a, List<String> b) {
+            var n = Math.min(a.size(), b.size());
+            var i = 0;
+            while (i < n && a.get(i).equals(b.get(i))) {
+                i++;
+            }
+            return a.subList(0, i);
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonPointer;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
+
+import java.util.Arrays;
+
+/// ### 关于基本类型数组读取
+/// 直接从 parser 读取到 double[]/long[]/int[] 中 (缓冲区按需增长), 不创建任何 Node.
+///
+/// 指定 JSON Pointer 时, 途经的其他值会被直接跳过, 并且读取到目标数组后立即返回 (不再校验文档剩余部分).
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonPrimitiveArrayReader {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    public static double[] readDoubleArray(JsonParser p, JsonPointer pointer) throws JacksonException {
+        _moveTo(p, pointer);
+        var result = new double[INITIAL_CAPACITY];
+        var size = 0;
+        JsonToken t;
+        while ((t = _nextToken(p)) != JsonToken.END_ARRAY) {
+            if (t != JsonToken.VALUE_NUMBER_INT && t != JsonToken.VALUE_NUMBER_FLOAT) {
+                throw new StreamReadException(p, "期望数字, 实际为: " + t);
+            }
+            if (size == result.length) {
+                result = Arrays.copyOf(result, _grow(size));
+            }
+            result[size++] = p.getDoubleValue();
+        }
+        _checkTail(p, pointer);
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    public static long[] readLongArray(JsonParser p, JsonPointer pointer) throws JacksonException {
+        _moveTo(p, pointer);
+        var result = new long[INITIAL_CAPACITY];
+        var size = 0;
+        JsonToken t;
+        while ((t = _nextToken(p)) != JsonToken.END_ARRAY) {
+            if (t != JsonToken.VALUE_NUMBER_INT) {
+                throw new StreamReadException(p, "期望整数, 实际为: " + t);
+            }
+            if (size == result.length) {
+                result = Arrays.copyOf(result, _grow(size));
+            }
+            result[size++] = p.getLongValue();
+        }
+        _checkTail(p, pointer);
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    public static int[] readIntArray(JsonParser p, JsonPointer pointer) throws JacksonException {
+        _moveTo(p, pointer);
+        var result = new int[INITIAL_CAPACITY];
+        var size = 0;
+        JsonToken t;
+        while ((t = _nextToken(p)) != JsonToken.END_ARRAY) {
+            if (t != JsonToken.VALUE_NUMBER_INT) {
+                throw new StreamReadException(p, "期望整数, 实际为: " + t);
+            }
+            if (size == result.length) {
+                result = Arrays.copyOf(result, _grow(size));
+            }
+            result[size++] = p.getIntValue();
+        }
+        _checkTail(p, pointer);
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /// 移动到 pointer 所指向的数组的 START_ARRAY 处
+    private static void _moveTo(JsonParser p, JsonPointer pointer) throws JacksonException {
+        var t = p.nextToken();
+        if (t == null) {
+            throw new StreamReadException(p, "未检测到任何有效内容");
+        }
+        var ptr = pointer;
+        while (!ptr.matches()) {
+            switch (t) {
+                case START_OBJECT -> {
+                    var name = ptr.getMatchingProperty();
+                    String propName;
+                    while (true) {
+                        propName = p.nextName();
+                        if (propName == null) {
+                            throw new StreamReadException(p, "路径不存在: " + pointer);
+                        }
+                        t = _nextToken(p);
+                        if (propName.equals(name)) {
+                            break;
+                        }
+                        p.skipChildren();
+                    }
+                }
+                case START_ARRAY -> {
+                    var index = ptr.getMatchingIndex();
+                    if (index < 0) {
+                        throw new StreamReadException(p, "路径不存在: " + pointer);
+                    }
+                    for (int i = 0; i <= index; i++) {
+                        t = _nextToken(p);
+                        if (t == JsonToken.END_ARRAY) {
+                            throw new StreamReadException(p, "路径不存在: " + pointer);
+                        }
+                        if (i < index) {
+                            p.skipChildren();
+                        }
+                    }
+                }
+                default -> throw new StreamReadException(p, "路径不存在: " + pointer);
+            }
+            ptr = ptr.tail();
+        }
+        if (t != JsonToken.START_ARRAY) {
+            throw new StreamReadException(p, "期望数组, 实际为: " + t);
+        }
+    }
+
+    /// 读取根数组时 校验多余内容
+    private static void _checkTail(JsonParser p, JsonPointer pointer) throws JacksonException {
+        if (pointer.matches() && p.nextToken() != null) {
+            throw new StreamReadException(p, "检测到多余内容");
+        }
+    }
+
+    private static JsonToken _nextToken(JsonParser p) throws JacksonException {
+        var t = p.nextToken();
+        if (t == null) { // unexpected end-of-input
+            throw new StreamReadException(p, "Unexpected end-of-input");
+        }
+        return t;
+    }
+
+    private static int _grow(int size) {
+        // grow by 50%
+        return size + Math.max(INITIAL_CAPACITY, size >> 1);
+    }
+
+}
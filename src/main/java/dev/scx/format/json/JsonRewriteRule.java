@@ -0,0 +1,33 @@
+package dev.scx.format.json;
+
+import dev.scx.node.Node;
+
+import java.util.function.UnaryOperator;
+
+/// 重写规则
+///
+/// @author scx567888
+/// @version 0.0.1
+sealed interface JsonRewriteRule {
+
+    /// 掩码 (值会被替换为 指定字符串)
+    record Mask(String mask) implements JsonRewriteRule {
+
+    }
+
+    /// 丢弃字段
+    record Drop() implements JsonRewriteRule {
+
+    }
+
+    /// 重命名字段
+    record Rename(String newFieldName) implements JsonRewriteRule {
+
+    }
+
+    /// 转换值 (此时值会被物化为 Node)
+    record Transform(UnaryOperator<Node> transformer) implements JsonRewriteRule {
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package dev.scx.format.json;
+
+import dev.scx.node.Node;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/// 流式重写规则 (按 字段名 匹配, 作用于任意层级)
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see JsonNodeConverter#rewrite(java.io.InputStream, java.io.OutputStream, JsonRewriteRules, JsonNodeConvertOptions)
+public class JsonRewriteRules {
+
+    public static final String DEFAULT_MASK = "******";
+
+    private final Map<String, JsonRewriteRule> rules;
+
+    public JsonRewriteRules() {
+        this.rules = new HashMap<>();
+    }
+
+    /// 将字段值替换为 [#DEFAULT_MASK]
+    public JsonRewriteRules mask(String fieldName) {
+        return mask(fieldName, DEFAULT_MASK);
+    }
+
+    /// 将字段值替换为 指定字符串 (无论原值是否为容器)
+    public JsonRewriteRules mask(String fieldName, String mask) {
+        this.rules.put(fieldName, new JsonRewriteRule.Mask(mask));
+        return this;
+    }
+
+    /// 丢弃字段
+    public JsonRewriteRules drop(String fieldName) {
+        this.rules.put(fieldName, new JsonRewriteRule.Drop());
+        return this;
+    }
+
+    /// 重命名字段
+    public JsonRewriteRules rename(String fieldName, String newFieldName) {
+        this.rules.put(fieldName, new JsonRewriteRule.Rename(newFieldName));
+        return this;
+    }
+
+    /// 转换字段值, 仅此规则会将 字段值 物化为 Node. transformer 返回 null 时丢弃字段.
+    public JsonRewriteRules transform(String fieldName, UnaryOperator<Node> transformer) {
+        this.rules.put(fieldName, new JsonRewriteRule.Transform(transformer));
+        return this;
+    }
+
+    JsonRewriteRule get(String fieldName) {
+        return rules.get(fieldName);
+    }
+
+}
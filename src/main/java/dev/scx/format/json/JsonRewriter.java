@@ -0,0 +1,119 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
+
+import static dev.scx.format.json.JsonSerializer.serialize;
+
+/// ### 关于重写
+/// 此重写器逐 token 地将 parser 复制到 generator, 不构建 Node 树, 内存占用与文档大小无关.
+/// 只有 [JsonRewriteRule.Transform] 命中的字段值才会被物化为 Node.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonRewriter {
+
+    private final JsonRewriteRules _rules;
+    private final JsonNodeConvertOptions _options;
+    private final JsonDeserializer _deserializer;
+    // 每次调用创建, 整个调用共享同一截止时间
+    private CancellationChecker _checker;
+
+    public JsonRewriter(JsonRewriteRules rules, JsonNodeConvertOptions options) {
+        this._rules = rules;
+        this._options = options;
+        // 物化的值会交给 transformer, 它可能原地修改, 不能共享节点
+        this._deserializer = new JsonDeserializer(options, false);
+    }
+
+    public void rewrite(JsonParser p, JsonGenerator g) throws JacksonException {
+        _checker = CancellationChecker.of(_options);
+        var firstToken = p.nextToken();
+        if (firstToken == null) {
+            throw new StreamReadException(p, "未检测到任何有效内容");
+        }
+
+        _rewriteValue(p, g);
+
+        var tailToken = p.nextToken();
+        if (tailToken != null) {
+            throw new StreamReadException(p, "检测到多余内容");
+        }
+    }
+
+    // Non-recursive, 通过 depth 判断根值何时结束
+    private void _rewriteValue(JsonParser p, JsonGenerator g) throws JacksonException {
+        var depth = 0;
+        var t = p.currentToken();
+        while (true) {
+            if (_checker != null) {
+                _checker.check();
+            }
+            switch (t) {
+                case START_OBJECT, START_ARRAY -> {
+                    g.copyCurrentEvent(p);
+                    depth++;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    g.copyCurrentEvent(p);
+                    depth--;
+                }
+                case PROPERTY_NAME -> depth += _rewriteProperty(p, g);
+                // 使用 Exact 以保证数字原样输出
+                default -> g.copyCurrentEventExact(p);
+            }
+            if (depth == 0) {
+                return;
+            }
+            t = _nextToken(p);
+        }
+    }
+
+    /// 处理一个字段, 返回 深度的变化量
+    private int _rewriteProperty(JsonParser p, JsonGenerator g) throws JacksonException {
+        var propName = p.currentName();
+        var rule = _rules.get(propName);
+        if (rule == null) {
+            g.writeName(propName);
+            return 0;
+        }
+        var t = _nextToken(p);
+        switch (rule) {
+            case JsonRewriteRule.Mask mask -> {
+                g.writeName(propName);
+                p.skipChildren();
+                g.writeString(mask.mask());
+            }
+            case JsonRewriteRule.Drop _ -> p.skipChildren();
+            case JsonRewriteRule.Rename rename -> {
+                g.writeName(rename.newFieldName());
+                g.copyCurrentEventExact(p);
+                // 容器值 交由外层循环继续复制
+                if (t.isStructStart()) {
+                    return 1;
+                }
+            }
+            case JsonRewriteRule.Transform transform -> {
+                var node = _deserializer.deserializeValue(p, _checker);
+                var newNode = transform.transformer().apply(node);
+                if (newNode != null) {
+                    g.writeName(propName);
+                    serialize(g, newNode, false, _checker);
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static JsonToken _nextToken(JsonParser p) throws JacksonException {
+        var t = p.nextToken();
+        if (t == null) { // unexpected end-of-input
+            throw new StreamReadException(p, "Unexpected end-of-input");
+        }
+        return t;
+    }
+
+}
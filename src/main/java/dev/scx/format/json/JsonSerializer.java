@@ -15,19 +15,37 @@ import tools.jackson.core.JsonGenerator;
 final class JsonSerializer {
 
     public static void serialize(JsonGenerator g, Node node) throws JacksonException {
+        serialize(g, node, false);
+    }
+
+    /// @param cacheNames 是否通过 [SerializedNameCache] 写入字段名
+    public static void serialize(JsonGenerator g, Node node, boolean cacheNames) throws JacksonException {
+        serialize(g, node, cacheNames, null);
+    }
+
+    /// @param checker 超时/取消检查, 可以为 null
+    public static void serialize(JsonGenerator g, Node node, boolean cacheNames, CancellationChecker checker) throws JacksonException {
+        if (checker != null) {
+            checker.check();
+        }
         switch (node) {
             case ObjectNode objectNode -> {
                 g.writeStartObject(objectNode, objectNode.size());
                 for (var field : objectNode) {
-                    g.writeName(field.getKey());
-                    serialize(g, field.getValue());
+                    var name = cacheNames ? SerializedNameCache.get(field.getKey()) : null;
+                    if (name != null) {
+                        g.writeName(name);
+                    } else {
+                        g.writeName(field.getKey());
+                    }
+                    serialize(g, field.getValue(), cacheNames, checker);
                 }
                 g.writeEndObject();
             }
             case ArrayNode arrayNode -> {
                 g.writeStartArray(arrayNode, arrayNode.size());
                 for (var element : arrayNode) {
-                    serialize(g, element);
+                    serialize(g, element, cacheNames, checker);
                 }
                 g.writeEndArray();
             }
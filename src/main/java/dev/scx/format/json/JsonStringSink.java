@@ -0,0 +1,40 @@
+package dev.scx.format.json;
+
+import dev.scx.node.Node;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/// 大字符串值的接收器, 命中的字符串值会通过 `JsonParser#getString(Writer)` 流式写出, 而不是构建为 String.
+///
+/// 对于每个命中的值, 会依次调用 [#open(String)] 和 [#close(String, Writer, long)] (或 [#abort(String, Writer)]) (同一线程).
+/// 同一个接收器可能被多个线程上的解析同时使用, 因此每个值的状态应由 writer 持有, 而不是接收器本身.
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see JsonNodeConvertOptions#stringSink(JsonStringSink)
+/// @see SpillFileStringSink
+public interface JsonStringSink {
+
+    /// 打开写出目标
+    ///
+    /// @param path 值所在位置的 JSON Pointer
+    Writer open(String path) throws IOException;
+
+    /// 写出完成, 由接收器负责关闭 writer
+    ///
+    /// @param length 写出的字符数
+    /// @return 在 Node 树中替代原值的节点 (如 指向溢出文件的句柄)
+    Node close(String path, Writer writer, long length) throws IOException;
+
+    /// 写出失败 (如 输入在字符串中途结束), 此时不会再调用 [#close(String, Writer, long)].
+    /// 需要关闭 writer 并丢弃已写出的内容, 不应抛出异常
+    default void abort(String path, Writer writer) {
+        try {
+            writer.close();
+        } catch (IOException _) {
+            // 已经失败, 忽略
+        }
+    }
+
+}
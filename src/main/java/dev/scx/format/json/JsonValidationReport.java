@@ -0,0 +1,28 @@
+package dev.scx.format.json;
+
+/// 校验报告
+///
+/// @param length          文档长度 (字节输入时为字节数, 字符输入时为字符数)
+/// @param tokenCount      token 数量
+/// @param maxDepth        最大嵌套深度
+/// @param objectCount     对象数量
+/// @param arrayCount      数组数量
+/// @param stringCount     字符串值数量 (不包括字段名)
+/// @param numberCount     数字数量
+/// @param booleanCount    布尔值数量
+/// @param nullCount       null 数量
+/// @param maxStringLength 最长字符串值的长度 (字符数)
+/// @author scx567888
+/// @version 0.0.1
+public record JsonValidationReport(long length,
+                                   long tokenCount,
+                                   int maxDepth,
+                                   long objectCount,
+                                   long arrayCount,
+                                   long stringCount,
+                                   long numberCount,
+                                   long booleanCount,
+                                   long nullCount,
+                                   int maxStringLength) {
+
+}
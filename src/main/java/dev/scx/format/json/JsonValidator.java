@@ -0,0 +1,184 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.TokenStreamContext;
+import tools.jackson.core.exc.StreamReadException;
+
+import static dev.scx.format.json.NodeHelper.ENTRY_BYTES;
+import static dev.scx.format.json.NodeHelper.SLOT_BYTES;
+
+/// ### 关于校验
+/// 只驱动 parser 走完整个文档并统计, 不创建任何 Node.
+/// 所有 StreamReadConstraints 由 parser 自身检查, 重复字段 (仅 [DuplicateFieldPolicy#THROW]) 由
+/// [StrictDuplicateObjectReadContext] 交给 parser 检测.
+/// maxNodeCount, maxObjectEntries, maxArrayLength, maxRetainedBytes 按 [JsonDeserializer] 的规则统计,
+/// 但不构建 Node, 因此只是近似: 重复字段按多个条目计算, 浮点数按可能的最大节点估算.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class JsonValidator {
+
+    private final FloatLiteralPolicy _floatLiteralPolicy;
+    private final long _maxNodeCount;
+    private final int _maxObjectEntries;
+    private final int _maxArrayLength;
+    private final long _maxRetainedBytes;
+    // 未设置任何限制时 跳过统计
+    private final boolean _limited;
+    private long _nodeCount;
+    private long _retainedBytes;
+
+    public JsonValidator(JsonNodeConvertOptions options) {
+        this._floatLiteralPolicy = options.floatLiteralPolicy();
+        this._maxNodeCount = options.maxNodeCount();
+        this._maxObjectEntries = options.maxObjectEntries();
+        this._maxArrayLength = options.maxArrayLength();
+        this._maxRetainedBytes = options.maxRetainedBytes();
+        this._limited = _maxNodeCount != Long.MAX_VALUE || _maxObjectEntries != Integer.MAX_VALUE ||
+            _maxArrayLength != Integer.MAX_VALUE || _maxRetainedBytes != Long.MAX_VALUE;
+    }
+
+    public JsonValidationReport validate(JsonParser p) throws JacksonException {
+        var t = p.nextToken();
+        if (t == null) {
+            throw new StreamReadException(p, "未检测到任何有效内容");
+        }
+
+        // parser 只在设置了 maxTokenCount 时才会计数, 因此自行统计
+        var tokenCount = 0L;
+        var depth = 0;
+        var maxDepth = 0;
+        var objectCount = 0L;
+        var arrayCount = 0L;
+        var stringCount = 0L;
+        var numberCount = 0L;
+        var booleanCount = 0L;
+        var nullCount = 0L;
+        var maxStringLength = 0;
+
+        while (true) {
+            tokenCount++;
+            switch (t) {
+                case START_OBJECT -> {
+                    objectCount++;
+                    depth++;
+                    maxDepth = Math.max(maxDepth, depth);
+                    // 此时上下文已是新对象, 所在的容器为其父上下文
+                    _account(p, p.streamReadContext().getParent(), 64);
+                }
+                case START_ARRAY -> {
+                    arrayCount++;
+                    depth++;
+                    maxDepth = Math.max(maxDepth, depth);
+                    _account(p, p.streamReadContext().getParent(), 40);
+                }
+                case END_OBJECT, END_ARRAY -> depth--;
+                case PROPERTY_NAME -> {
+                    // 字段名长度由 maxNameLength 限制
+                }
+                case VALUE_STRING -> {
+                    stringCount++;
+                    // 同时会完成字符串的解码和校验
+                    var stringLength = p.getStringLength();
+                    maxStringLength = Math.max(maxStringLength, stringLength);
+                    _account(p, p.streamReadContext(), 56 + stringLength);
+                }
+                case VALUE_NUMBER_INT -> {
+                    numberCount++;
+                    if (_limited) {
+                        _account(p, p.streamReadContext(), _intBytes(p));
+                    }
+                }
+                case VALUE_NUMBER_FLOAT -> {
+                    numberCount++;
+                    if (_limited) {
+                        _account(p, p.streamReadContext(), _floatBytes(p));
+                    }
+                }
+                case VALUE_TRUE, VALUE_FALSE -> {
+                    booleanCount++;
+                    _account(p, p.streamReadContext(), 0);
+                }
+                case VALUE_NULL -> {
+                    nullCount++;
+                    _account(p, p.streamReadContext(), 0);
+                }
+                default -> throw new StreamReadException(p, "Unexpected token: " + t);
+            }
+            if (depth == 0) {
+                break;
+            }
+            t = p.nextToken();
+            if (t == null) { // unexpected end-of-input
+                throw new StreamReadException(p, "Unexpected end-of-input");
+            }
+        }
+
+        var tailToken = p.nextToken();
+        if (tailToken != null) {
+            throw new StreamReadException(p, "检测到多余内容");
+        }
+
+        var location = p.currentLocation();
+        var length = location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset();
+        return new JsonValidationReport(length, tokenCount, maxDepth,
+            objectCount, arrayCount, stringCount, numberCount, booleanCount, nullCount, maxStringLength);
+    }
+
+    /// 统计一个值, 规则同 [JsonDeserializer] (nodeBytes 见 [NodeHelper#estimateBytes])
+    private void _account(JsonParser p, TokenStreamContext parent, long nodeBytes) throws StreamReadException {
+        if (!_limited) {
+            return;
+        }
+        _nodeCount++;
+        if (_nodeCount > _maxNodeCount) {
+            throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "节点数量超过限制 : " + _maxNodeCount);
+        }
+        var slotBytes = 0;
+        // 父容器中的条目数 包含当前值
+        if (parent.inObject()) {
+            slotBytes = ENTRY_BYTES;
+            if (parent.getEntryCount() > _maxObjectEntries) {
+                throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "对象字段数量超过限制 : " + _maxObjectEntries);
+            }
+        } else if (parent.inArray()) {
+            slotBytes = SLOT_BYTES;
+            if (parent.getEntryCount() > _maxArrayLength) {
+                throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "数组长度超过限制 : " + _maxArrayLength);
+            }
+        }
+        _retainedBytes += slotBytes + nodeBytes;
+        if (_retainedBytes > _maxRetainedBytes) {
+            throw StacklessReadException.of(p, JsonParseErrorKind.LIMIT_EXCEEDED, "估算的内存占用超过限制 : " + _maxRetainedBytes + " 字节");
+        }
+    }
+
+    private static long _intBytes(JsonParser p) throws JacksonException {
+        return switch (p.getNumberType()) {
+            case INT -> 16;
+            case LONG -> 24;
+            default -> 56 + p.getBigIntegerValue().bitLength() / 8;
+        };
+    }
+
+    /// 不做 [FloatLiteralPolicy#EXACT] 的往返校验, 有效数字超过 15 位时 按 BigDecimal 估算
+    private long _floatBytes(JsonParser p) throws JacksonException {
+        if (p.isNaN()) {
+            return 24;
+        }
+        if (_floatLiteralPolicy == FloatLiteralPolicy.DOUBLE) {
+            return switch (p.getNumberType()) {
+                case FLOAT -> 16;
+                case DOUBLE -> 24;
+                default -> 96 + p.getDecimalValue().unscaledValue().bitLength() / 8;
+            };
+        }
+        var value = p.getDecimalValue();
+        if (_floatLiteralPolicy == FloatLiteralPolicy.EXACT && value.precision() <= 15) {
+            return 24;
+        }
+        return 96 + value.unscaledValue().bitLength() / 8;
+    }
+
+}
@@ -25,15 +25,19 @@ final class LightJsonFactory extends TextualTSFactory {
     private final char _quoteChar;
     private final CharsToNameCanonicalizer _rootCharSymbols;
     private final ByteQuadsCanonicalizer _byteSymbolCanonicalizer;
+    private final boolean _stacklessErrors;
 
     public LightJsonFactory(LightJsonFactoryBuilder b) {
         super(b);
         this._rootValueSeparator = b._jacksonConfig.rootValueSeparator();
-        this._characterEscapes = b._jacksonConfig.characterEscapes();
-        this._maximumNonEscapedChar = b._jacksonConfig.highestNonEscapedChar();
-        this._quoteChar = b._jacksonConfig.quoteChar();
-        this._rootCharSymbols = CharsToNameCanonicalizer.createRoot(this);
+        // 规范化输出 (RFC 8785) 时 转义规则是固定的
+        var canonical = b._jacksonConfig.canonical();
+        this._characterEscapes = canonical ? null : b._jacksonConfig.characterEscapes();
+        this._maximumNonEscapedChar = canonical ? 0 : b._jacksonConfig.highestNonEscapedChar();
+        this._quoteChar = canonical ? '"' : b._jacksonConfig.quoteChar();
+        this._rootCharSymbols = b._charSymbolRoots.root(this);
         this._byteSymbolCanonicalizer = b._byteSymbolCanonicalizer;
+        this._stacklessErrors = b._stacklessErrors;
     }
 
     @Override
@@ -97,6 +101,13 @@ final class LightJsonFactory extends TextualTSFactory {
     @Override
     protected JsonParser _createParser(ObjectReadContext readCtxt, IOContext ioCtxt,
                                        Reader r) throws JacksonException {
+        if (_stacklessErrors) {
+            return new StacklessJsonParser.Chars(readCtxt, ioCtxt,
+                readCtxt.getStreamReadFeatures(_streamReadFeatures),
+                readCtxt.getFormatReadFeatures(_formatReadFeatures),
+                r,
+                _rootCharSymbols.makeChild());
+        }
         return new ReaderBasedJsonParser(readCtxt, ioCtxt,
             readCtxt.getStreamReadFeatures(_streamReadFeatures),
             readCtxt.getFormatReadFeatures(_formatReadFeatures),
@@ -109,6 +120,13 @@ final class LightJsonFactory extends TextualTSFactory {
                                        char[] data, int offset, int len,
                                        boolean recyclable) throws JacksonException {
         _checkRangeBoundsForCharArray(data, offset, len);
+        if (_stacklessErrors) {
+            return new StacklessJsonParser.Chars(readCtxt, ioCtxt,
+                readCtxt.getStreamReadFeatures(_streamReadFeatures),
+                readCtxt.getFormatReadFeatures(_formatReadFeatures),
+                _rootCharSymbols.makeChild(),
+                data, offset, offset + len, recyclable);
+        }
         return new ReaderBasedJsonParser(readCtxt, ioCtxt,
             readCtxt.getStreamReadFeatures(_streamReadFeatures),
             readCtxt.getFormatReadFeatures(_formatReadFeatures),
@@ -122,6 +140,15 @@ final class LightJsonFactory extends TextualTSFactory {
                                        byte[] data, int offset, int len)
         throws JacksonException {
         _checkRangeBoundsForByteArray(data, offset, len);
+        var start = _stacklessErrors ? _utf8Start(data, offset, len) : -1;
+        if (start >= 0) {
+            ioCtxt.setEncoding(JsonEncoding.UTF8);
+            return new StacklessJsonParser.UTF8(readCtxt, ioCtxt,
+                readCtxt.getStreamReadFeatures(_streamReadFeatures),
+                readCtxt.getFormatReadFeatures(_formatReadFeatures),
+                _byteSymbolCanonicalizer.makeChild(_factoryFeatures),
+                data, start, offset + len, start - offset);
+        }
         return new ByteSourceJsonBootstrapper(ioCtxt, data, offset, len)
             .constructParser(readCtxt,
                 readCtxt.getStreamReadFeatures(_streamReadFeatures),
@@ -143,6 +170,25 @@ final class LightJsonFactory extends TextualTSFactory {
             input, can, firstByte);
     }
 
+    /// 与 ByteSourceJsonBootstrapper 的编码检测一致, 返回跳过 UTF-8 BOM 后的起始位置.
+    /// 其他编码 (UTF-16/32) 或未开启字段名规范化时返回 -1, 交由 ByteSourceJsonBootstrapper 处理
+    private int _utf8Start(byte[] data, int offset, int len) {
+        if (!Feature.CANONICALIZE_PROPERTY_NAMES.enabledIn(_factoryFeatures)) {
+            return -1;
+        }
+        if (!Feature.CHARSET_DETECTION.enabledIn(_factoryFeatures)) {
+            return offset;
+        }
+        if (len >= 3 && data[offset] == (byte) 0xEF && data[offset + 1] == (byte) 0xBB && data[offset + 2] == (byte) 0xBF) {
+            return offset + 3;
+        }
+        // 合法的 UTF-8 JSON 不含 0 字节, 而 UTF-16/32 的前两个字节中必有 0 (首字符为 ASCII). 0xFE 和 0xFF 为 UTF-16/32 的 BOM
+        if (len >= 2 && (data[offset] == 0 || data[offset + 1] == 0 || data[offset] == (byte) 0xFE || data[offset] == (byte) 0xFF)) {
+            return -1;
+        }
+        return offset;
+    }
+
     @Override
     protected JsonGenerator _createGenerator(ObjectWriteContext writeCtxt,
                                              IOContext ioCtxt, Writer out)
@@ -15,8 +15,10 @@ final class LightJsonFactoryBuilder extends DecorableTSFBuilder<LightJsonFactory
 
     final JsonNodeConvertOptions _jacksonConfig;
     final ByteQuadsCanonicalizer _byteSymbolCanonicalizer;
+    final CharSymbolRoots _charSymbolRoots;
+    boolean _stacklessErrors;
 
-    public LightJsonFactoryBuilder(JsonNodeConvertOptions jacksonConfig, ByteQuadsCanonicalizer byteSymbolCanonicalizer, RecyclerPool<BufferRecycler> recyclerPool) {
+    public LightJsonFactoryBuilder(JsonNodeConvertOptions jacksonConfig, ByteQuadsCanonicalizer byteSymbolCanonicalizer, CharSymbolRoots charSymbolRoots, RecyclerPool<BufferRecycler> recyclerPool) {
         super(jacksonConfig.toStreamReadConstraints(),
             jacksonConfig.toStreamWriteConstraints(),
             jacksonConfig.errorReportConfiguration(),
@@ -24,12 +26,19 @@ final class LightJsonFactoryBuilder extends DecorableTSFBuilder<LightJsonFactory
             jacksonConfig.toFormatWriteFeatures());
         this._jacksonConfig = jacksonConfig;
         this._byteSymbolCanonicalizer = byteSymbolCanonicalizer;
+        this._charSymbolRoots = charSymbolRoots;
         this._recyclerPool = recyclerPool;
         this._factoryFeatures = jacksonConfig.toFactoryFeatures();
         this._streamReadFeatures = jacksonConfig.toStreamReadFeatures();
         this._streamWriteFeatures = jacksonConfig.toStreamWriteFeature();
     }
 
+    /// 低开销模式: parser 以 [StacklessReadException] 报告解析错误 (仅 byte[] 中的 UTF-8 和字符输入)
+    public LightJsonFactoryBuilder stacklessErrors(boolean stacklessErrors) {
+        this._stacklessErrors = stacklessErrors;
+        return this;
+    }
+
     @Override
     public LightJsonFactory build() {
         return new LightJsonFactory(this);
@@ -0,0 +1,273 @@
+package dev.scx.format.json;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_LONG_UNALIGNED;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.*;
+
+/// NDJSON 文件的行偏移索引, 用于按记录号随机读取 (配合 [JsonNodeConverter#ndjsonRecordToNode(NdjsonIndex, long, JsonNodeConvertOptions)]).
+///
+/// 索引保存在数据文件旁的 `<文件名>.idx` 中, 格式如下 (小端):
+///
+/// ```
+/// index  := MAGIC VERSION indexedLength(long) recordCount(long) start(long)*
+/// ```
+///
+/// 只索引以 '\n' 结尾的完整行 (忽略空行), 因此正在追加中的最后一行 会在下次 [#update()] 时被索引.
+/// 记录 n 的范围为 [start(n), start(n + 1)), 最后一条记录到 indexedLength 为止 (末尾的换行和空行由解析器忽略).
+///
+/// 非线程安全: [#update()] 不能与读取并发执行.
+///
+/// @author scx567888
+/// @version 0.0.1
+public final class NdjsonIndex implements Closeable {
+
+    private static final int MAGIC = 0x494A444E; // "NDJI"
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 24;
+    private static final long SCAN_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    // 偏移按小端写入; 扫描时按小端读取, 最低位的字节才是 地址最小的字节 (见 numberOfTrailingZeros)
+    private static final ValueLayout.OfLong LONG_LE = JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    private final FileChannel _fileChannel;
+    private final FileChannel _indexChannel;
+    private long _indexedLength;
+    private long _recordCount;
+    private Arena _arena;
+    private MemorySegment _starts;
+
+    // 扫描状态
+    private long[] _scanStarts;
+    private int _scanCount;
+    private long _scanLineStart;
+
+    private NdjsonIndex(FileChannel fileChannel, FileChannel indexChannel) {
+        this._fileChannel = fileChannel;
+        this._indexChannel = indexChannel;
+        this._arena = null;
+        this._starts = MemorySegment.NULL;
+    }
+
+    /// 打开 (或创建) 索引, 并索引上次之后追加的内容
+    public static NdjsonIndex open(Path file) throws IOException {
+        var fileChannel = FileChannel.open(file, READ);
+        try {
+            var indexChannel = FileChannel.open(file.resolveSibling(file.getFileName() + ".idx"), READ, WRITE, CREATE);
+            var index = new NdjsonIndex(fileChannel, indexChannel);
+            try {
+                index._load();
+                index.update();
+                return index;
+            } catch (IOException | RuntimeException e) {
+                index.close();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    /// 索引新追加的完整行, 返回记录总数. 若文件被截断 (或被替换为更短的文件) 则重建索引.
+    public long update() throws IOException {
+        var size = _fileChannel.size();
+        if (size < _indexedLength) {
+            _unmap();
+            _indexedLength = 0;
+            _recordCount = 0;
+            _writeHeader();
+        }
+        if (size == _indexedLength) {
+            return _recordCount;
+        }
+        _scanStarts = new long[1024];
+        _scanCount = 0;
+        _scanLineStart = _indexedLength;
+        var position = _indexedLength;
+        while (position < size) {
+            var chunkLength = Math.min(SCAN_CHUNK_SIZE, size - position);
+            try (var arena = Arena.ofConfined()) {
+                var chunk = _fileChannel.map(READ_ONLY, position, chunkLength, arena);
+                var i = 0L;
+                // 每次检查 8 个字节 (SWAR), 候选位置再逐个确认
+                for (; i + 8 <= chunkLength; i += 8) {
+                    var x = chunk.get(LONG_LE, i) ^ NEWLINES;
+                    var found = (x - ONES) & ~x & HIGHS;
+                    while (found != 0) {
+                        var j = i + (Long.numberOfTrailingZeros(found) >>> 3);
+                        found &= found - 1;
+                        if (chunk.get(JAVA_BYTE, j) == '\n') {
+                            _addLine(position + j);
+                        }
+                    }
+                }
+                for (; i < chunkLength; i++) {
+                    if (chunk.get(JAVA_BYTE, i) == '\n') {
+                        _addLine(position + i);
+                    }
+                }
+            }
+            position += chunkLength;
+        }
+        // 先写入偏移, 再写入头部, 中途失败时 旧的头部仍然有效
+        _unmap();
+        var body = ByteBuffer.allocate(_scanCount * 8).order(ByteOrder.LITTLE_ENDIAN);
+        body.asLongBuffer().put(_scanStarts, 0, _scanCount);
+        _writeFully(_indexChannel, body, HEADER_LENGTH + _recordCount * 8);
+        _indexedLength = _scanLineStart;
+        _recordCount += _scanCount;
+        _scanStarts = null;
+        _indexChannel.truncate(HEADER_LENGTH + _recordCount * 8);
+        _writeHeader();
+        _map();
+        return _recordCount;
+    }
+
+    public long recordCount() {
+        return _recordCount;
+    }
+
+    /// 已索引的字节数 (最后一个完整行之后的位置)
+    public long indexedLength() {
+        return _indexedLength;
+    }
+
+    public long recordStart(long recordIndex) {
+        _checkIndex(recordIndex);
+        return _starts.get(LONG_LE, recordIndex * 8);
+    }
+
+    public long recordEnd(long recordIndex) {
+        _checkIndex(recordIndex);
+        return recordIndex + 1 < _recordCount ? _starts.get(LONG_LE, (recordIndex + 1) * 8) : _indexedLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _unmap();
+        try {
+            _indexChannel.close();
+        } finally {
+            _fileChannel.close();
+        }
+    }
+
+    /// 读取数据文件的 [start, end) 区间
+    byte[] read(long start, long end) throws IOException {
+        var length = end - start;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IOException("读取范围过大 : " + length);
+        }
+        var bytes = new byte[(int) length];
+        var buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            var n = _fileChannel.read(buffer, start + buffer.position());
+            if (n < 0) {
+                throw new EOFException();
+            }
+        }
+        return bytes;
+    }
+
+    private void _load() throws IOException {
+        var indexSize = _indexChannel.size();
+        if (indexSize < HEADER_LENGTH) {
+            _indexedLength = 0;
+            _recordCount = 0;
+            return;
+        }
+        var header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        while (header.hasRemaining()) {
+            if (_indexChannel.read(header, header.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new StreamCorruptedException("无效的 NDJSON 索引文件");
+        }
+        _indexedLength = header.getLong();
+        _recordCount = header.getLong();
+        if (_indexedLength < 0 || _recordCount < 0 || HEADER_LENGTH + _recordCount * 8 > indexSize) {
+            throw new StreamCorruptedException("无效的 NDJSON 索引文件");
+        }
+        _map();
+    }
+
+    private void _writeHeader() throws IOException {
+        var header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(_indexedLength).putLong(_recordCount).flip();
+        _writeFully(_indexChannel, header, 0);
+    }
+
+    private void _map() throws IOException {
+        _unmap();
+        if (_recordCount > 0) {
+            _arena = Arena.ofShared();
+            _starts = _indexChannel.map(READ_ONLY, HEADER_LENGTH, _recordCount * 8, _arena);
+        }
+    }
+
+    private void _unmap() {
+        if (_arena != null) {
+            _arena.close();
+            _arena = null;
+            _starts = MemorySegment.NULL;
+        }
+    }
+
+    private void _addLine(long lineEnd) throws IOException {
+        if (!_isBlankLine(_scanLineStart, lineEnd)) {
+            if (_scanCount == _scanStarts.length) {
+                _scanStarts = Arrays.copyOf(_scanStarts, _scanCount * 2);
+            }
+            _scanStarts[_scanCount] = _scanLineStart;
+            _scanCount++;
+        }
+        _scanLineStart = lineEnd + 1;
+    }
+
+    /// 空行 (包括只有 "\r" 的行)
+    private boolean _isBlankLine(long lineStart, long lineEnd) throws IOException {
+        if (lineEnd == lineStart) {
+            return true;
+        }
+        if (lineEnd - lineStart == 1) {
+            var b = ByteBuffer.allocate(1);
+            _fileChannel.read(b, lineStart);
+            return b.get(0) == '\r';
+        }
+        return false;
+    }
+
+    private void _checkIndex(long recordIndex) {
+        if (recordIndex < 0 || recordIndex >= _recordCount) {
+            throw new IndexOutOfBoundsException("recordIndex : " + recordIndex + ", recordCount : " + _recordCount);
+        }
+    }
+
+    private static void _writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package dev.scx.format.json;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.node.Node;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.TokenStreamFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/// 并行读取 NDJSON. 输入按行边界切分为若干块, 每块由一个任务使用独立的 parser 和 [JsonDeserializer] 解析.
+///
+/// - 有序模式: 按块的顺序 在调用线程上回调 consumer. 同时处理中的块数有上限, 避免结果堆积.
+/// - 无序模式: 在工作线程上直接回调 consumer (因此 consumer 必须线程安全).
+///
+/// 两种模式下同时处理中的块数都有上限. 任一块失败 (或 consumer 抛出异常) 后, 其他块不再回调 consumer,
+/// 且调用方会等待已在运行的块结束后 才抛出异常, 因此抛出之后 不会再有任何回调.
+///
+/// 块内每一行 (忽略空行) 使用独立的 parser 解析为一条记录, 因此 maxDocumentLength, maxTokenCount 等限制作用于单条记录,
+/// 而非整个块. 与 [NdjsonIndex] 一样, 每行必须恰好是一个值.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class NdjsonParallelReader {
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int MAX_IN_FLIGHT = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final TokenStreamFactory _jsonFactory;
+    private final ObjectReadContext _readContext;
+    private final JsonNodeConvertOptions _options;
+    private final Executor _executor;
+    private final boolean _ordered;
+    private final Consumer<Node> _consumer;
+    // 每次调用创建一个 reader, 整个调用 (所有块) 共享同一截止时间
+    private final CancellationChecker _checker;
+    // 任一块失败后置为 true, 正在运行的块据此停止, 尚未开始的块直接返回
+    private volatile boolean _failed;
+
+    public NdjsonParallelReader(TokenStreamFactory jsonFactory, ObjectReadContext readContext, JsonNodeConvertOptions options, Executor executor, boolean ordered, Consumer<Node> consumer) {
+        this._jsonFactory = jsonFactory;
+        this._readContext = readContext;
+        this._options = options;
+        this._executor = executor;
+        this._ordered = ordered;
+        this._consumer = consumer;
+        this._checker = CancellationChecker.of(options);
+    }
+
+    public void read(byte[] bytes, int offset, int length) throws FormatToNodeException, IOException {
+        var end = offset + length;
+        var boundaries = new ArrayList<Long>();
+        boundaries.add((long) offset);
+        var nominal = offset + CHUNK_SIZE;
+        while (nominal < end) {
+            var i = nominal;
+            while (i < end && bytes[i] != '\n') {
+                i++;
+            }
+            if (i >= end) {
+                break;
+            }
+            boundaries.add((long) i + 1);
+            nominal = i + 1 + CHUNK_SIZE;
+        }
+        boundaries.add((long) end);
+        _run(boundaries, (start, chunkEnd) -> _parse(bytes, (int) start, (int) chunkEnd));
+    }
+
+    public void read(FileChannel fileChannel) throws FormatToNodeException, IOException {
+        var size = fileChannel.size();
+        var boundaries = new ArrayList<Long>();
+        boundaries.add(0L);
+        var buffer = ByteBuffer.allocate(8192);
+        var nominal = (long) CHUNK_SIZE;
+        while (nominal < size) {
+            var newline = _findNewline(fileChannel, nominal, size, buffer);
+            if (newline < 0) {
+                break;
+            }
+            boundaries.add(newline + 1);
+            nominal = newline + 1 + CHUNK_SIZE;
+        }
+        boundaries.add(size);
+        _run(boundaries, (start, end) -> {
+            var bytes = new byte[(int) (end - start)];
+            var chunkBuffer = ByteBuffer.wrap(bytes);
+            while (chunkBuffer.hasRemaining()) {
+                if (fileChannel.read(chunkBuffer, start + chunkBuffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            return _parse(bytes, 0, bytes.length);
+        });
+    }
+
+    /// 解析 [start, end) 中的全部记录. 有序模式下收集为列表, 否则直接回调 consumer
+    private List<Node> _parse(byte[] bytes, int start, int end) throws FormatToNodeException {
+        var nodes = _ordered ? new ArrayList<Node>() : null;
+        var deserializer = new JsonDeserializer(_options);
+        // 在工作线程上使用, 计数独立
+        var checker = _checker != null ? _checker.fork() : null;
+        var lineStart = start;
+        while (lineStart < end && !_failed) {
+            var lineEnd = lineStart;
+            while (lineEnd < end && bytes[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (!_isBlank(bytes, lineStart, lineEnd)) {
+                Node node;
+                // 每条记录一个 parser, StreamReadConstraints 按记录计算
+                try (var parser = _jsonFactory.createParser(_readContext, bytes, lineStart, lineEnd - lineStart)) {
+                    node = deserializer.deserialize(parser, checker);
+                } catch (JacksonException e) {
+                    throw new FormatToNodeException(e);
+                }
+                if (_failed) {
+                    break;
+                }
+                if (nodes != null) {
+                    nodes.add(node);
+                } else {
+                    _consumer.accept(node);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return nodes;
+    }
+
+    private void _run(List<Long> boundaries, ChunkTask task) throws FormatToNodeException, IOException {
+        var chunkCount = boundaries.size() - 1;
+        var pending = new ArrayDeque<CompletableFuture<List<Node>>>();
+        var next = 0;
+        var completed = false;
+        try {
+            while (next < chunkCount || !pending.isEmpty()) {
+                while (next < chunkCount && pending.size() < MAX_IN_FLIGHT) {
+                    pending.add(_submit(task, boundaries.get(next), boundaries.get(next + 1)));
+                    next++;
+                }
+                var nodes = _join(pending.poll());
+                // 无序模式下 已在工作线程上回调
+                if (nodes != null) {
+                    for (var node : nodes) {
+                        if (_checker != null) {
+                            _checker.check();
+                        }
+                        _consumer.accept(node);
+                    }
+                }
+            }
+            completed = true;
+        } finally {
+            // 出错时 停止其他块, 并等待它们结束 (CompletableFuture#cancel 不会等待已经开始的任务)
+            if (!completed) {
+                _failed = true;
+                for (var future : pending) {
+                    try {
+                        future.join();
+                    } catch (CompletionException | CancellationException _) {
+                        // 只保留第一个异常
+                    }
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<List<Node>> _submit(ChunkTask task, long start, long end) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (_failed) {
+                return null;
+            }
+            try {
+                return task.parse(start, end);
+            } catch (FormatToNodeException e) {
+                _failed = true;
+                throw new CompletionException(e);
+            } catch (IOException e) {
+                _failed = true;
+                throw new UncheckedIOException(e);
+            } catch (RuntimeException | Error e) {
+                // 如 无序模式下 consumer 抛出的异常
+                _failed = true;
+                throw e;
+            }
+        }, _executor);
+    }
+
+    private static List<Node> _join(CompletableFuture<List<Node>> future) throws FormatToNodeException, IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            switch (e.getCause()) {
+                case FormatToNodeException c -> throw c;
+                case UncheckedIOException c -> throw c.getCause();
+                case RuntimeException c -> throw c;
+                case Error c -> throw c;
+                case null, default -> throw e;
+            }
+        }
+    }
+
+    /// 空行 或 只含空白 (包括 "\r") 的行
+    private static boolean _isBlank(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            var b = bytes[i];
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /// 返回 -1 表示没有找到
+    private static long _findNewline(FileChannel fileChannel, long position, long size, ByteBuffer buffer) throws IOException {
+        while (position < size) {
+            buffer.clear();
+            var n = fileChannel.read(buffer, position);
+            if (n < 0) {
+                return -1;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i;
+                }
+            }
+            position += n;
+        }
+        return -1;
+    }
+
+    private interface ChunkTask {
+
+        List<Node> parse(long start, long end) throws FormatToNodeException, IOException;
+
+    }
+
+}
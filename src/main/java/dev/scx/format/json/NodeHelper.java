@@ -0,0 +1,149 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+
+import java.math.BigDecimal;
+
+/// NodeHelper
+///
+/// 和 [JsonSerializer] 一样基于递归实现, 递归深度由 [JsonNodeConvertOptions#maxNestingDepth(int)] 间接限制.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class NodeHelper {
+
+    // ObjectNode 每个条目 (LinkedHashMap.Entry + 哈希表槽位) 和 ArrayNode 每个槽位的估算开销
+    public static final int ENTRY_BYTES = 48;
+    public static final int SLOT_BYTES = 8;
+
+    /// 深拷贝 (标量节点不可变, 直接复用)
+    public static Node deepCopy(Node node) {
+        return switch (node) {
+            case ObjectNode objectNode -> {
+                var newObjectNode = new ObjectNode();
+                for (var field : objectNode) {
+                    newObjectNode.put(field.getKey(), deepCopy(field.getValue()));
+                }
+                yield newObjectNode;
+            }
+            case ArrayNode arrayNode -> {
+                var newArrayNode = new ArrayNode();
+                for (var element : arrayNode) {
+                    newArrayNode.add(deepCopy(element));
+                }
+                yield newArrayNode;
+            }
+            default -> node;
+        };
+    }
+
+    /// 单个节点 (不含子节点) 的粗略估算 (64 位 JVM, 压缩指针, 字符串按 Latin-1 计). 字段名由符号表规范化共享, 不计入.
+    public static long estimateBytes(Node node) {
+        return switch (node) {
+            case ObjectNode _ -> 64;
+            case ArrayNode _ -> 40;
+            case StringNode stringNode -> 56 + stringNode.value().length();
+            case IntNode _, FloatNode _ -> 16;
+            case LongNode _, DoubleNode _ -> 24;
+            case BigIntegerNode bigIntegerNode -> 56 + bigIntegerNode.value().bitLength() / 8;
+            case BigDecimalNode bigDecimalNode -> 96 + bigDecimalNode.value().unscaledValue().bitLength() / 8;
+            // 单例
+            case BooleanNode _, NullNode _ -> 0;
+        };
+    }
+
+    /// 整棵树的粗略估算, 规则同上
+    public static long estimateRetainedBytes(Node node) {
+        return switch (node) {
+            case ObjectNode objectNode -> {
+                var bytes = estimateBytes(objectNode);
+                for (var field : objectNode) {
+                    bytes += ENTRY_BYTES + estimateRetainedBytes(field.getValue());
+                }
+                yield bytes;
+            }
+            case ArrayNode arrayNode -> {
+                var bytes = estimateBytes(arrayNode);
+                for (var element : arrayNode) {
+                    bytes += SLOT_BYTES + estimateRetainedBytes(element);
+                }
+                yield bytes;
+            }
+            default -> estimateBytes(node);
+        };
+    }
+
+    /// JSON 语义上的相等 (对象忽略字段顺序, 数字按数值比较)
+    public static boolean jsonEquals(Node a, Node b) {
+        if (a == b) {
+            return true;
+        }
+        return switch (a) {
+            case ObjectNode objectA -> {
+                if (!(b instanceof ObjectNode objectB) || objectA.size() != objectB.size()) {
+                    yield false;
+                }
+                for (var field : objectA) {
+                    var other = objectB.get(field.getKey());
+                    if (other == null || !jsonEquals(field.getValue(), other)) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+            case ArrayNode arrayA -> {
+                if (!(b instanceof ArrayNode arrayB) || arrayA.size() != arrayB.size()) {
+                    yield false;
+                }
+                var iteratorB = arrayB.iterator();
+                for (var element : arrayA) {
+                    if (!jsonEquals(element, iteratorB.next())) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+            case StringNode stringA -> b instanceof StringNode stringB && stringA.value().equals(stringB.value());
+            case BooleanNode booleanA -> b instanceof BooleanNode booleanB && booleanA.value() == booleanB.value();
+            case NullNode _ -> b instanceof NullNode;
+            default -> {
+                // NaN/Infinity 无法转换为 BigDecimal, 按值比较 (NaN 与 NaN 相等)
+                var nonFiniteA = nonFiniteValue(a);
+                var nonFiniteB = nonFiniteValue(b);
+                if (nonFiniteA != null || nonFiniteB != null) {
+                    yield nonFiniteA != null && nonFiniteB != null && Double.compare(nonFiniteA, nonFiniteB) == 0;
+                }
+                var numberA = toBigDecimal(a);
+                var numberB = toBigDecimal(b);
+                yield numberA != null && numberB != null && numberA.compareTo(numberB) == 0;
+            }
+        };
+    }
+
+    /// 非有限的 FloatNode/DoubleNode (NaN/Infinity) 的值, 其余返回 null
+    private static Double nonFiniteValue(Node node) {
+        return switch (node) {
+            case FloatNode floatNode when !Float.isFinite(floatNode.value()) -> (double) floatNode.value();
+            case DoubleNode doubleNode when !Double.isFinite(doubleNode.value()) -> doubleNode.value();
+            default -> null;
+        };
+    }
+
+    /// 数字节点转换为 BigDecimal, 非数字 (或 NaN/Infinity) 返回 null
+    public static BigDecimal toBigDecimal(Node node) {
+        try {
+            return switch (node) {
+                case IntNode intNode -> BigDecimal.valueOf(intNode.value());
+                case LongNode longNode -> BigDecimal.valueOf(longNode.value());
+                case FloatNode floatNode -> new BigDecimal(Float.toString(floatNode.value()));
+                case DoubleNode doubleNode -> BigDecimal.valueOf(doubleNode.value());
+                case BigIntegerNode bigIntegerNode -> new BigDecimal(bigIntegerNode.value());
+                case BigDecimalNode bigDecimalNode -> bigDecimalNode.value();
+                default -> null;
+            };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
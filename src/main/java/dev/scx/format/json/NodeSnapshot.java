@@ -0,0 +1,39 @@
+package dev.scx.format.json;
+
+/// ### 二进制快照格式 (version 1)
+///
+/// ```
+/// snapshot := MAGIC VERSION value
+/// value    := tag payload
+/// OBJECT   := varint(size) (key value)*
+/// ARRAY    := varint(size) value*
+/// key      := varint(0) string        // 新 key, 依次分配 id
+///           | varint(id + 1)           // 引用已出现过的 key
+/// string   := varint(byteLength) bytes // 逐个 UTF-16 码元编码 (同 CESU-8), 以保证孤立代理项也能精确往返
+/// INT/LONG := zigzag varint
+/// FLOAT/DOUBLE := 大端 IEEE-754 位
+/// BIG_INTEGER  := varint(byteLength) 补码大端字节
+/// BIG_DECIMAL  := zigzag varint(scale) BIG_INTEGER(unscaledValue)
+/// ```
+///
+/// @author scx567888
+/// @version 0.0.1
+final class NodeSnapshot {
+
+    public static final byte[] MAGIC = {'S', 'C', 'X', 'N'};
+    public static final byte VERSION = 1;
+
+    public static final byte TAG_NULL = 0;
+    public static final byte TAG_FALSE = 1;
+    public static final byte TAG_TRUE = 2;
+    public static final byte TAG_INT = 3;
+    public static final byte TAG_LONG = 4;
+    public static final byte TAG_FLOAT = 5;
+    public static final byte TAG_DOUBLE = 6;
+    public static final byte TAG_BIG_INTEGER = 7;
+    public static final byte TAG_BIG_DECIMAL = 8;
+    public static final byte TAG_STRING = 9;
+    public static final byte TAG_OBJECT = 10;
+    public static final byte TAG_ARRAY = 11;
+
+}
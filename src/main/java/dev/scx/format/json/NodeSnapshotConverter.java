@@ -0,0 +1,45 @@
+package dev.scx.format.json;
+
+import dev.scx.node.Node;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/// Node 的二进制快照 (用于本地缓存和进程间传输, 不保证与其他实现兼容).
+///
+/// 相比 JSON 文本: 数字无需格式化/解析, 字符串带长度前缀无需转义, 对象的 key 只写一次.
+/// 所有节点类型都可以精确往返 (包括 BigIntegerNode/BigDecimalNode, 以及 float 和 double 的原始位).
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see NodeSnapshot
+public final class NodeSnapshotConverter {
+
+    public byte[] nodeToSnapshotBytes(Node node) {
+        var serializer = new SnapshotSerializer(null);
+        try {
+            serializer.serialize(node);
+        } catch (IOException e) {
+            // 没有 OutputStream 时 理论上永远不会发生
+            throw new IllegalStateException(e);
+        }
+        return serializer.toByteArray();
+    }
+
+    public void nodeToSnapshot(Node node, OutputStream outputStream) throws IOException {
+        new SnapshotSerializer(outputStream).serialize(node);
+    }
+
+    /// @throws java.io.StreamCorruptedException 快照无效时
+    public Node snapshotToNode(byte[] bytes) throws IOException {
+        return new SnapshotDeserializer(bytes, 0, bytes.length).deserialize();
+    }
+
+    /// @throws java.io.StreamCorruptedException 快照无效时
+    public Node snapshotToNode(InputStream inputStream) throws IOException {
+        var bytes = inputStream.readAllBytes();
+        return new SnapshotDeserializer(bytes, 0, bytes.length).deserialize();
+    }
+
+}
@@ -0,0 +1,38 @@
+package dev.scx.format.json;
+
+/// 根据之前的输出大小 估计下一次输出缓冲区 (ByteArrayOutputStream / StringWriter) 的初始容量,
+/// 避免每次都从 32 开始成倍扩容并复制.
+///
+/// 变大时立即跟上, 变小时每次最多收缩 1/8, 偶尔出现的小文档不会让下一个大文档重新扩容.
+/// 多线程下的更新允许丢失, 它只是一个估计值.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class OutputSizeHint {
+
+    private static final int MIN_HINT = 256;
+    /// 超过此大小 扩容次数已经很少, 不值得为偶尔的超大文档长期占用内存
+    private static final int MAX_HINT = 1024 * 1024;
+
+    private volatile int _hint;
+
+    public OutputSizeHint() {
+        this._hint = MIN_HINT;
+    }
+
+    public int get() {
+        return _hint;
+    }
+
+    public void record(int size) {
+        var hint = _hint;
+        // 留出 1/8 的余量, 使大小略有浮动的文档也不需要扩容
+        var target = size + (size >>> 3);
+        var next = target >= hint ? target : Math.max(target, hint - (hint >>> 3));
+        next = Math.clamp(next, MIN_HINT, MAX_HINT);
+        if (next != hint) {
+            _hint = next;
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package dev.scx.format.json;
+
+import java.io.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/// 使用 [GzipPool] 中 Inflater 的 GZIP 输入流 (RFC 1952), 支持多成员拼接.
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see java.util.zip.GZIPInputStream
+final class PooledGzipInputStream extends InflaterInputStream {
+
+    /// GZIP 魔数
+    public static final int GZIP_MAGIC = 0x8b1f;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final GzipPool _pool;
+    private final CRC32 _crc;
+    private boolean _eos;
+    private boolean _closed;
+
+    public PooledGzipInputStream(InputStream in, GzipPool pool) throws IOException {
+        super(in, pool.acquireInflater(), 8192);
+        this._pool = pool;
+        this._crc = new CRC32();
+        try {
+            _readHeader(in);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /// 是否以 GZIP 魔数开头
+    public static boolean isGzip(byte[] bytes) {
+        return bytes.length >= 2 && (bytes[0] & 0xFF) == (GZIP_MAGIC & 0xFF) && (bytes[1] & 0xFF) == (GZIP_MAGIC >> 8);
+    }
+
+    /// 探测是否以 GZIP 魔数开头 (不消耗任何字节)
+    public static boolean isGzip(PushbackInputStream in) throws IOException {
+        var header = in.readNBytes(2);
+        in.unread(header);
+        return isGzip(header);
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        if (_eos) {
+            return -1;
+        }
+        var n = super.read(buf, off, len);
+        if (n == -1) {
+            if (_readTrailer()) {
+                _eos = true;
+            } else {
+                return this.read(buf, off, len);
+            }
+        } else {
+            _crc.update(buf, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!_closed) {
+            _closed = true;
+            // 使用外部传入的 Inflater 时 super.close() 不会调用 end()
+            super.close();
+            _pool.releaseInflater(inf);
+        }
+    }
+
+    /// 返回 头部的字节数
+    private int _readHeader(InputStream in) throws IOException {
+        var checkedIn = new CheckedInputStream(in, _crc);
+        _crc.reset();
+        if (_readUShort(checkedIn) != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (_readUByte(checkedIn) != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        var flg = _readUByte(checkedIn);
+        // MTIME, XFL, OS
+        _skipBytes(checkedIn, 6);
+        var n = 2 + 2 + 6;
+        if ((flg & FEXTRA) == FEXTRA) {
+            var m = _readUShort(checkedIn);
+            _skipBytes(checkedIn, m);
+            n += m + 2;
+        }
+        if ((flg & FNAME) == FNAME) {
+            do {
+                n++;
+            } while (_readUByte(checkedIn) != 0);
+        }
+        if ((flg & FCOMMENT) == FCOMMENT) {
+            do {
+                n++;
+            } while (_readUByte(checkedIn) != 0);
+        }
+        if ((flg & FHCRC) == FHCRC) {
+            var v = (int) _crc.getValue() & 0xFFFF;
+            if (_readUShort(in) != v) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+            n += 2;
+        }
+        _crc.reset();
+        return n;
+    }
+
+    /// 返回 true 表示 已到达流末尾, false 表示 后面还拼接着另一个成员
+    private boolean _readTrailer() throws IOException {
+        var in = this.in;
+        var n = inf.getRemaining();
+        if (n > 0) {
+            in = new SequenceInputStream(new ByteArrayInputStream(buf, len - n, n), new FilterInputStream(in) {
+                @Override
+                public void close() {
+                    // 不关闭底层流
+                }
+            });
+        }
+        if (_readUInt(in) != _crc.getValue() || _readUInt(in) != (inf.getBytesWritten() & 0xFFFFFFFFL)) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        // 和 GZIPInputStream 一样: 还有剩余数据时 尝试按拼接的成员处理
+        if (this.in.available() > 0 || n > 26) {
+            var m = 8; // trailer
+            try {
+                m += _readHeader(in);
+            } catch (IOException e) {
+                return true; // 忽略格式错误的尾部数据
+            }
+            inf.reset();
+            if (n > m) {
+                inf.setInput(buf, len - n + m, n - m);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static long _readUInt(InputStream in) throws IOException {
+        long s = _readUShort(in);
+        return ((long) _readUShort(in) << 16) | s;
+    }
+
+    private static int _readUShort(InputStream in) throws IOException {
+        var b = _readUByte(in);
+        return (_readUByte(in) << 8) | b;
+    }
+
+    private static int _readUByte(InputStream in) throws IOException {
+        var b = in.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+
+    private static void _skipBytes(InputStream in, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            _readUByte(in);
+        }
+    }
+
+}
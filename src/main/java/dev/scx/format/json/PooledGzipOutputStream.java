@@ -0,0 +1,76 @@
+package dev.scx.format.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/// 使用 [GzipPool] 中 Deflater 的 GZIP 输出流 (RFC 1952).
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see java.util.zip.GZIPOutputStream
+final class PooledGzipOutputStream extends DeflaterOutputStream {
+
+    private static final byte[] HEADER = {
+        (byte) PooledGzipInputStream.GZIP_MAGIC,        // Magic number (short)
+        (byte) (PooledGzipInputStream.GZIP_MAGIC >> 8), // Magic number (short)
+        8,                                              // Compression method (CM = DEFLATED)
+        0,                                              // Flags (FLG)
+        0, 0, 0, 0,                                     // Modification time MTIME (int)
+        0,                                              // Extra flags (XFL)
+        (byte) 0xFF                                     // Operating system (OS = unknown)
+    };
+
+    private final GzipPool _pool;
+    private final CRC32 _crc;
+    private boolean _finished;
+    private boolean _closed;
+
+    public PooledGzipOutputStream(OutputStream out, GzipPool pool) throws IOException {
+        super(out, pool.acquireDeflater(), 8192);
+        this._pool = pool;
+        this._crc = new CRC32();
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) throws IOException {
+        super.write(buf, off, len);
+        _crc.update(buf, off, len);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (_finished) {
+            return;
+        }
+        _finished = true;
+        super.finish();
+        var trailer = new byte[8];
+        _writeInt((int) _crc.getValue(), trailer, 0);
+        _writeInt((int) def.getBytesRead(), trailer, 4);
+        out.write(trailer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!_closed) {
+            _closed = true;
+            try {
+                // 使用外部传入的 Deflater 时 super.close() 不会调用 end()
+                super.close();
+            } finally {
+                _pool.releaseDeflater(def);
+            }
+        }
+    }
+
+    private static void _writeInt(int i, byte[] buf, int offset) {
+        buf[offset] = (byte) i;
+        buf[offset + 1] = (byte) (i >> 8);
+        buf[offset + 2] = (byte) (i >> 16);
+        buf[offset + 3] = (byte) (i >> 24);
+    }
+
+}
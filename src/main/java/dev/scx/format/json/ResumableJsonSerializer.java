@@ -0,0 +1,85 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+
+/// 可暂停的序列化器. 与 [JsonSerializer] 输出相同, 但使用显式栈, 每次调用 [#writeNext()] 只写出一个 token,
+/// 因此可以在任意两个 token 之间暂停 (如等待下游的背压信号).
+///
+/// @author scx567888
+/// @version 0.0.1
+final class ResumableJsonSerializer {
+
+    private final JsonGenerator _generator;
+    private final boolean _cacheNames;
+    private final ArrayList<Iterator<?>> _stack;
+    private Node _root;
+
+    public ResumableJsonSerializer(JsonGenerator generator, Node root, boolean cacheNames) {
+        this._generator = generator;
+        this._cacheNames = cacheNames;
+        this._stack = new ArrayList<>();
+        this._root = root;
+    }
+
+    /// 写出下一个 token, 全部写完时返回 false
+    public boolean writeNext() throws JacksonException {
+        if (_root != null) {
+            var root = _root;
+            _root = null;
+            _writeValue(root);
+            return true;
+        }
+        if (_stack.isEmpty()) {
+            return false;
+        }
+        var iterator = _stack.getLast();
+        if (!iterator.hasNext()) {
+            _stack.removeLast();
+            if (_generator.streamWriteContext().inObject()) {
+                _generator.writeEndObject();
+            } else {
+                _generator.writeEndArray();
+            }
+            return true;
+        }
+        // ArrayNode 迭代出 Node, ObjectNode 迭代出 Map.Entry
+        var next = iterator.next();
+        if (next instanceof Map.Entry<?, ?> field) {
+            _writeName((String) field.getKey());
+            _writeValue((Node) field.getValue());
+        } else {
+            _writeValue((Node) next);
+        }
+        return true;
+    }
+
+    private void _writeName(String name) {
+        var serializedName = _cacheNames ? SerializedNameCache.get(name) : null;
+        if (serializedName != null) {
+            _generator.writeName(serializedName);
+        } else {
+            _generator.writeName(name);
+        }
+    }
+
+    private void _writeValue(Node node) {
+        switch (node) {
+            case ObjectNode objectNode -> {
+                _generator.writeStartObject(objectNode, objectNode.size());
+                _stack.add(objectNode.iterator());
+            }
+            case ArrayNode arrayNode -> {
+                _generator.writeStartArray(arrayNode, arrayNode.size());
+                _stack.add(arrayNode.iterator());
+            }
+            default -> JsonSerializer.serialize(_generator, node);
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.io.SerializedString;
+
+/// 预编码的字段名缓存. [SerializedString] 会缓存 转义后的 UTF-8 和 char[] 形式, 重复的字段名只需一次数组拷贝.
+///
+/// 缓存按标准 JSON 转义编码, 而生成器对 '/', 控制字符 和 非 BMP 字符的处理受写入特性影响,
+/// 因此只缓存无需转义的可打印 ASCII 字段名, 且仅在 [#isApplicable(JsonNodeConvertOptions)] 时使用.
+/// 缓存是固定大小的直接映射表: 每个字段名按哈希落在一个槽位上, 槽位连续未命中若干次后 由新字段名替换.
+/// 因此内存有上限, 热点字段名 (如换了一批 schema 之后的新字段) 总能进入缓存,
+/// 而字段名基数很高时 大多数写入直接退化为不经缓存, 不会每次都替换.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class SerializedNameCache {
+
+    // 必须是 2 的幂
+    private static final int SIZE = 2048;
+    private static final int MAX_NAME_LENGTH = 128;
+    private static final int REPLACE_AFTER_MISSES = 16;
+
+    // 不加锁: 竞争时 多个线程可能各自创建并互相覆盖, 无妨 (SerializedString 的字段名是 final 的, 读到的一定完整)
+    private static final SerializedString[] CACHE = new SerializedString[SIZE];
+    // 每个槽位的连续未命中次数, 同样不加锁 (计数不精确无妨)
+    private static final byte[] MISSES = new byte[SIZE];
+
+    /// 返回 null 表示不缓存此字段名
+    public static SerializedString get(String name) {
+        var hash = name.hashCode();
+        var index = (hash ^ (hash >>> 16)) & (SIZE - 1);
+        var serializedString = CACHE[index];
+        if (serializedString != null && serializedString.getValue().equals(name)) {
+            if (MISSES[index] != 0) {
+                MISSES[index] = 0;
+            }
+            return serializedString;
+        }
+        if (name.length() > MAX_NAME_LENGTH || !_isPlainAscii(name)) {
+            return null;
+        }
+        if (serializedString != null && ++MISSES[index] < REPLACE_AFTER_MISSES) {
+            return null;
+        }
+        MISSES[index] = 0;
+        serializedString = new SerializedString(name);
+        CACHE[index] = serializedString;
+        return serializedString;
+    }
+
+    /// 自定义转义, 自定义引号 或 不加引号时 预编码结果会不一致
+    public static boolean isApplicable(JsonNodeConvertOptions options) {
+        return options.quotePropertyNames() &&
+            options.characterEscapes() == null &&
+            options.highestNonEscapedChar() == 0 &&
+            options.quoteChar() == '"';
+    }
+
+    private static boolean _isPlainAscii(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            var c = name.charAt(i);
+            if (c < 0x20 || c >= 0x7F || c == '"' || c == '\\' || c == '/') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
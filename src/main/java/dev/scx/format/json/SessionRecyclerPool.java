@@ -0,0 +1,29 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.util.BufferRecycler;
+import tools.jackson.core.util.RecyclerPool;
+
+/// 会话独占的 RecyclerPool, 始终返回同一个 BufferRecycler (非线程安全).
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see JsonNodeConvertSession
+final class SessionRecyclerPool implements RecyclerPool<BufferRecycler> {
+
+    private final BufferRecycler _bufferRecycler;
+
+    public SessionRecyclerPool() {
+        this._bufferRecycler = new BufferRecycler();
+    }
+
+    @Override
+    public BufferRecycler acquirePooled() {
+        return _bufferRecycler;
+    }
+
+    @Override
+    public void releasePooled(BufferRecycler pooled) {
+        // 始终持有, 无需归还
+    }
+
+}
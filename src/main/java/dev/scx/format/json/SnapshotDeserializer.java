@@ -0,0 +1,222 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static dev.scx.format.json.NodeSnapshot.*;
+import static dev.scx.node.BooleanNode.FALSE;
+import static dev.scx.node.BooleanNode.TRUE;
+import static dev.scx.node.NullNode.NULL;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/// ### 关于快照反序列化
+/// 和 [JsonDeserializer] 一样采用非递归方式, 容器的剩余元素个数与容器一起入栈.
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see NodeSnapshot
+final class SnapshotDeserializer {
+
+    private final byte[] _buffer;
+    private final int _end;
+    private final ArrayList<String> _keys;
+    private int _position;
+
+    private ContainerNode[] _stack;
+    private int[] _remaining;
+    private int _top;
+
+    public SnapshotDeserializer(byte[] buffer, int offset, int length) {
+        this._buffer = buffer;
+        this._position = offset;
+        this._end = offset + length;
+        this._keys = new ArrayList<>();
+        this._stack = new ContainerNode[10];
+        this._remaining = new int[10];
+        this._top = 0;
+    }
+
+    public Node deserialize() throws StreamCorruptedException {
+        for (var b : MAGIC) {
+            if (_readByte() != b) {
+                throw new StreamCorruptedException("不是有效的快照");
+            }
+        }
+        var version = _readByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("不支持的快照版本: " + version);
+        }
+
+        var root = _readValue();
+
+        // Non-recursive
+        while (_top > 0) {
+            var i = _top - 1;
+            if (_remaining[i] == 0) {
+                _top--;
+                continue;
+            }
+            _remaining[i]--;
+            switch (_stack[i]) {
+                case ObjectNode objectNode -> {
+                    var key = _readKey();
+                    objectNode.put(key, _readValue());
+                }
+                case ArrayNode arrayNode -> arrayNode.add(_readValue());
+            }
+        }
+
+        if (_position != _end) {
+            throw new StreamCorruptedException("检测到多余内容");
+        }
+        return root;
+    }
+
+    /// 读取一个值, 非空容器会被压入栈中 (其内容稍后由主循环填充)
+    private Node _readValue() throws StreamCorruptedException {
+        var tag = _readByte();
+        return switch (tag) {
+            case TAG_NULL -> NULL;
+            case TAG_FALSE -> FALSE;
+            case TAG_TRUE -> TRUE;
+            case TAG_INT -> new IntNode((int) _unzigzag(_readVarint()));
+            case TAG_LONG -> new LongNode(_unzigzag(_readVarint()));
+            case TAG_FLOAT -> new FloatNode(Float.intBitsToFloat((int) _readFixed(4)));
+            case TAG_DOUBLE -> new DoubleNode(Double.longBitsToDouble(_readFixed(8)));
+            case TAG_BIG_INTEGER -> new BigIntegerNode(_readBigInteger());
+            case TAG_BIG_DECIMAL -> {
+                var scale = (int) _unzigzag(_readVarint());
+                yield new BigDecimalNode(new BigDecimal(_readBigInteger(), scale));
+            }
+            case TAG_STRING -> new StringNode(_readString());
+            case TAG_OBJECT -> _push(new ObjectNode(), _readSize());
+            case TAG_ARRAY -> _push(new ArrayNode(), _readSize());
+            default -> throw new StreamCorruptedException("未知的 tag: " + tag);
+        };
+    }
+
+    private ContainerNode _push(ContainerNode node, int size) {
+        if (size == 0) {
+            return node;
+        }
+        if (_top == _stack.length) {
+            var newLength = _stack.length + Math.min(4000, Math.max(20, _stack.length >> 1));
+            _stack = Arrays.copyOf(_stack, newLength);
+            _remaining = Arrays.copyOf(_remaining, newLength);
+        }
+        _stack[_top] = node;
+        _remaining[_top] = size;
+        _top++;
+        return node;
+    }
+
+    private String _readKey() throws StreamCorruptedException {
+        var ref = _readVarint();
+        if (ref == 0) {
+            var key = _readString();
+            _keys.add(key);
+            return key;
+        }
+        if (ref > _keys.size()) {
+            throw new StreamCorruptedException("无效的 key 引用: " + ref);
+        }
+        return _keys.get((int) ref - 1);
+    }
+
+    private String _readString() throws StreamCorruptedException {
+        var length = _readSize();
+        var buf = _buffer;
+        var start = _position;
+        var end = start + length;
+        if (end > _end || end < 0) {
+            throw new StreamCorruptedException("Unexpected end-of-input");
+        }
+        _position = end;
+        var ascii = true;
+        for (int i = start; i < end; i++) {
+            if (buf[i] < 0) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            return new String(buf, start, length, ISO_8859_1);
+        }
+        var chars = new char[length];
+        var n = 0;
+        var i = start;
+        while (i < end) {
+            var b = buf[i++] & 0xFF;
+            if (b < 0x80) {
+                chars[n++] = (char) b;
+            } else if (b < 0xE0) {
+                if (i >= end) {
+                    throw new StreamCorruptedException("无效的字符串编码");
+                }
+                chars[n++] = (char) (((b & 0x1F) << 6) | (buf[i++] & 0x3F));
+            } else {
+                if (i + 1 >= end) {
+                    throw new StreamCorruptedException("无效的字符串编码");
+                }
+                chars[n++] = (char) (((b & 0x0F) << 12) | ((buf[i++] & 0x3F) << 6) | (buf[i++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    private BigInteger _readBigInteger() throws StreamCorruptedException {
+        var length = _readSize();
+        if (length == 0 || _position + length > _end) {
+            throw new StreamCorruptedException("无效的 BigInteger");
+        }
+        var value = new BigInteger(_buffer, _position, length);
+        _position += length;
+        return value;
+    }
+
+    private int _readSize() throws StreamCorruptedException {
+        var size = _readVarint();
+        // 每个元素至少占用 1 个字节, 以此防止伪造的 size 导致过量分配
+        if (size < 0 || size > _end - _position) {
+            throw new StreamCorruptedException("无效的长度: " + size);
+        }
+        return (int) size;
+    }
+
+    private long _readVarint() throws StreamCorruptedException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            var b = _readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("无效的 varint");
+    }
+
+    private long _readFixed(int bytes) throws StreamCorruptedException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (_readByte() & 0xFF);
+        }
+        return value;
+    }
+
+    private byte _readByte() throws StreamCorruptedException {
+        if (_position >= _end) {
+            throw new StreamCorruptedException("Unexpected end-of-input");
+        }
+        return _buffer[_position++];
+    }
+
+    private static long _unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -0,0 +1,194 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static dev.scx.format.json.NodeSnapshot.*;
+
+/// ### 关于快照序列化
+/// 和 [JsonSerializer] 一样基于递归下降.
+/// out 为 null 时 所有内容累积在内部缓冲区中, 否则缓冲区写满时 刷出到 out.
+///
+/// @author scx567888
+/// @version 0.0.1
+/// @see NodeSnapshot
+final class SnapshotSerializer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream _out;
+    private final HashMap<String, Integer> _keys;
+    private byte[] _buffer;
+    private int _position;
+
+    public SnapshotSerializer(OutputStream out) {
+        this._out = out;
+        this._keys = new HashMap<>();
+        this._buffer = new byte[DEFAULT_BUFFER_SIZE];
+        this._position = 0;
+    }
+
+    public void serialize(Node node) throws IOException {
+        _ensure(MAGIC.length + 1);
+        System.arraycopy(MAGIC, 0, _buffer, _position, MAGIC.length);
+        _position += MAGIC.length;
+        _buffer[_position++] = VERSION;
+        _write(node);
+        if (_out != null) {
+            _out.write(_buffer, 0, _position);
+            _position = 0;
+        }
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(_buffer, _position);
+    }
+
+    private void _write(Node node) throws IOException {
+        switch (node) {
+            case ObjectNode objectNode -> {
+                _writeTag(TAG_OBJECT);
+                _writeVarint(objectNode.size());
+                for (var field : objectNode) {
+                    _writeKey(field.getKey());
+                    _write(field.getValue());
+                }
+            }
+            case ArrayNode arrayNode -> {
+                _writeTag(TAG_ARRAY);
+                _writeVarint(arrayNode.size());
+                for (var element : arrayNode) {
+                    _write(element);
+                }
+            }
+            case StringNode stringNode -> {
+                _writeTag(TAG_STRING);
+                _writeString(stringNode.value());
+            }
+            case IntNode intNode -> {
+                _writeTag(TAG_INT);
+                _writeVarint(_zigzag(intNode.value()));
+            }
+            case LongNode longNode -> {
+                _writeTag(TAG_LONG);
+                _writeVarint(_zigzag(longNode.value()));
+            }
+            case FloatNode floatNode -> {
+                _writeTag(TAG_FLOAT);
+                _writeFixed(Float.floatToRawIntBits(floatNode.value()), 4);
+            }
+            case DoubleNode doubleNode -> {
+                _writeTag(TAG_DOUBLE);
+                _writeFixed(Double.doubleToRawLongBits(doubleNode.value()), 8);
+            }
+            case BigIntegerNode bigIntegerNode -> {
+                _writeTag(TAG_BIG_INTEGER);
+                _writeBigInteger(bigIntegerNode.value());
+            }
+            case BigDecimalNode bigDecimalNode -> {
+                _writeTag(TAG_BIG_DECIMAL);
+                _writeVarint(_zigzag(bigDecimalNode.value().scale()));
+                _writeBigInteger(bigDecimalNode.value().unscaledValue());
+            }
+            case BooleanNode booleanNode -> _writeTag(booleanNode.value() ? TAG_TRUE : TAG_FALSE);
+            case NullNode _ -> _writeTag(TAG_NULL);
+        }
+    }
+
+    private void _writeKey(String key) throws IOException {
+        var id = _keys.get(key);
+        if (id != null) {
+            _writeVarint(id + 1L);
+            return;
+        }
+        _keys.put(key, _keys.size());
+        _writeVarint(0);
+        _writeString(key);
+    }
+
+    private void _writeString(String value) throws IOException {
+        var length = value.length();
+        // 先计算字节长度
+        var byteLength = length;
+        for (int i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (c >= 0x80) {
+                byteLength += c < 0x800 ? 1 : 2;
+            }
+        }
+        _writeVarint(byteLength);
+        _ensure(byteLength);
+        var buf = _buffer;
+        var pos = _position;
+        for (int i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        _position = pos;
+    }
+
+    private void _writeBigInteger(BigInteger value) throws IOException {
+        var bytes = value.toByteArray();
+        _writeVarint(bytes.length);
+        _ensure(bytes.length);
+        System.arraycopy(bytes, 0, _buffer, _position, bytes.length);
+        _position += bytes.length;
+    }
+
+    private void _writeTag(byte tag) throws IOException {
+        _ensure(1);
+        _buffer[_position++] = tag;
+    }
+
+    private void _writeVarint(long value) throws IOException {
+        _ensure(10);
+        var buf = _buffer;
+        var pos = _position;
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        _position = pos;
+    }
+
+    private void _writeFixed(long value, int bytes) throws IOException {
+        _ensure(bytes);
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            _buffer[_position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void _ensure(int n) throws IOException {
+        if (_position + n <= _buffer.length) {
+            return;
+        }
+        if (_out != null) {
+            _out.write(_buffer, 0, _position);
+            _position = 0;
+            if (n <= _buffer.length) {
+                return;
+            }
+        }
+        _buffer = Arrays.copyOf(_buffer, Math.max(_position + n, _buffer.length << 1));
+    }
+
+    private static long _zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+}
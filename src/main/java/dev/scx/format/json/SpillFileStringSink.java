@@ -0,0 +1,79 @@
+package dev.scx.format.json;
+
+import dev.scx.node.Node;
+import dev.scx.node.StringNode;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/// 将大字符串值写入溢出文件 (UTF-8), 并以 文件的绝对路径 ([StringNode]) 替代原值.
+/// 溢出文件的生命周期由调用者管理 (写出失败时会删除).
+///
+/// 无状态, 可以在多个线程间共享 (每个值的溢出文件由其 writer 持有).
+///
+/// @author scx567888
+/// @version 0.0.1
+public final class SpillFileStringSink implements JsonStringSink {
+
+    private final Path directory;
+
+    public SpillFileStringSink(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Writer open(String path) throws IOException {
+        var file = Files.createTempFile(directory, "scx-json-", ".txt");
+        try {
+            return new SpillFileWriter(Files.newBufferedWriter(file, UTF_8), file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    @Override
+    public Node close(String path, Writer writer, long length) throws IOException {
+        var spillFileWriter = (SpillFileWriter) writer;
+        try {
+            spillFileWriter.close();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spillFileWriter.file);
+            throw e;
+        }
+        return new StringNode(spillFileWriter.file.toAbsolutePath().toString());
+    }
+
+    @Override
+    public void abort(String path, Writer writer) {
+        var spillFileWriter = (SpillFileWriter) writer;
+        try {
+            spillFileWriter.close();
+        } catch (IOException _) {
+            // 文件随后删除, 忽略
+        }
+        try {
+            Files.deleteIfExists(spillFileWriter.file);
+        } catch (IOException _) {
+            // 无法删除 (如 权限问题), 只能交由调用者清理目录
+        }
+    }
+
+    /// 携带溢出文件路径的 writer
+    private static final class SpillFileWriter extends FilterWriter {
+
+        private final Path file;
+
+        private SpillFileWriter(Writer out, Path file) {
+            super(out);
+            this.file = file;
+        }
+
+    }
+
+}
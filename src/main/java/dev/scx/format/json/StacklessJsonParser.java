@@ -0,0 +1,83 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.TokenStreamLocation;
+import tools.jackson.core.exc.StreamReadException;
+import tools.jackson.core.io.IOContext;
+import tools.jackson.core.json.ReaderBasedJsonParser;
+import tools.jackson.core.json.UTF8StreamJsonParser;
+import tools.jackson.core.sym.ByteQuadsCanonicalizer;
+import tools.jackson.core.sym.CharsToNameCanonicalizer;
+
+import java.io.Reader;
+
+/// 低开销模式的 parser, 所有解析错误均以 [StacklessReadException] 抛出.
+///
+/// @author scx567888
+/// @version 0.0.1
+sealed interface StacklessJsonParser {
+
+    /// UTF-8 字节输入
+    final class UTF8 extends UTF8StreamJsonParser implements StacklessJsonParser {
+
+        public UTF8(ObjectReadContext readCtxt, IOContext ctxt, int streamReadFeatures, int formatReadFeatures, ByteQuadsCanonicalizer sym, byte[] inputBuffer, int start, int end, int bytesPreProcessed) {
+            super(readCtxt, ctxt, streamReadFeatures, formatReadFeatures, null, sym, inputBuffer, start, end, bytesPreProcessed, false);
+        }
+
+        @Override
+        protected StreamReadException _constructReadException(String msg) {
+            return new StacklessReadException(this, msg, JsonParseErrorKind.SYNTAX);
+        }
+
+        @Override
+        protected StreamReadException _constructReadException(String msg, Throwable t) {
+            return new StacklessReadException(this, msg, currentLocation(), t, JsonParseErrorKind.SYNTAX);
+        }
+
+        @Override
+        protected StreamReadException _constructReadException(String msg, TokenStreamLocation loc) {
+            return new StacklessReadException(this, msg, loc, null, JsonParseErrorKind.SYNTAX);
+        }
+
+        @Override
+        protected <T> T _reportInvalidEOF(String msg, JsonToken currToken) throws StreamReadException {
+            throw new StacklessReadException(this, "Unexpected end-of-input" + msg, JsonParseErrorKind.UNEXPECTED_EOF);
+        }
+
+    }
+
+    /// 字符输入
+    final class Chars extends ReaderBasedJsonParser implements StacklessJsonParser {
+
+        public Chars(ObjectReadContext readCtxt, IOContext ctxt, int streamReadFeatures, int formatReadFeatures, Reader r, CharsToNameCanonicalizer st) {
+            super(readCtxt, ctxt, streamReadFeatures, formatReadFeatures, r, st);
+        }
+
+        public Chars(ObjectReadContext readCtxt, IOContext ctxt, int streamReadFeatures, int formatReadFeatures, CharsToNameCanonicalizer st, char[] inputBuffer, int start, int end, boolean bufferRecyclable) {
+            super(readCtxt, ctxt, streamReadFeatures, formatReadFeatures, null, st, inputBuffer, start, end, bufferRecyclable);
+        }
+
+        @Override
+        protected StreamReadException _constructReadException(String msg) {
+            return new StacklessReadException(this, msg, JsonParseErrorKind.SYNTAX);
+        }
+
+        @Override
+        protected StreamReadException _constructReadException(String msg, Throwable t) {
+            return new StacklessReadException(this, msg, currentLocation(), t, JsonParseErrorKind.SYNTAX);
+        }
+
+        @Override
+        protected StreamReadException _constructReadException(String msg, TokenStreamLocation loc) {
+            return new StacklessReadException(this, msg, loc, null, JsonParseErrorKind.SYNTAX);
+        }
+
+        @Override
+        protected <T> T _reportInvalidEOF(String msg, JsonToken currToken) throws StreamReadException {
+            throw new StacklessReadException(this, "Unexpected end-of-input" + msg, JsonParseErrorKind.UNEXPECTED_EOF);
+        }
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.TokenStreamLocation;
+import tools.jackson.core.exc.StreamReadException;
+
+/// 不填充栈信息的 StreamReadException, 由低开销模式的 parser (见 [StacklessJsonParser]) 及其上的 [JsonDeserializer] 抛出,
+/// 使拒绝非法输入的开销接近正常解析.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class StacklessReadException extends StreamReadException {
+
+    private final JsonParseErrorKind _kind;
+
+    StacklessReadException(JsonParser p, String message, TokenStreamLocation location, Throwable cause, JsonParseErrorKind kind) {
+        super(p, message, location, cause);
+        this._kind = kind;
+    }
+
+    StacklessReadException(JsonParser p, String message, JsonParseErrorKind kind) {
+        this(p, message, p.currentLocation(), null, kind);
+    }
+
+    /// 低开销模式的 parser 返回无栈异常, 否则返回普通的 StreamReadException
+    static StreamReadException of(JsonParser p, JsonParseErrorKind kind, String message) {
+        if (p instanceof StacklessJsonParser) {
+            return new StacklessReadException(p, message, kind);
+        }
+        return new StreamReadException(p, message);
+    }
+
+    public JsonParseErrorKind kind() {
+        return _kind;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
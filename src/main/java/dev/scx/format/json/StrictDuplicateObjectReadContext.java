@@ -0,0 +1,24 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.ObjectReadContext;
+
+import static tools.jackson.core.StreamReadFeature.STRICT_DUPLICATE_DETECTION;
+
+/// 由 parser 自身检测重复字段 (用于不构建 Node 的场景, 如 [JsonValidator])
+///
+/// @author scx567888
+/// @version 0.0.1
+final class StrictDuplicateObjectReadContext extends ObjectReadContext.Base {
+
+    public static final StrictDuplicateObjectReadContext STRICT_DUPLICATE_OBJECT_READ_CONTEXT = new StrictDuplicateObjectReadContext();
+
+    private StrictDuplicateObjectReadContext() {
+
+    }
+
+    @Override
+    public int getStreamReadFeatures(int defaults) {
+        return defaults | STRICT_DUPLICATE_DETECTION.getMask();
+    }
+
+}
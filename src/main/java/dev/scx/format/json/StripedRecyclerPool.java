@@ -0,0 +1,66 @@
+package dev.scx.format.json;
+
+import tools.jackson.core.util.BufferRecycler;
+import tools.jackson.core.util.JsonRecyclerPools;
+import tools.jackson.core.util.RecyclerPool;
+
+/// 分段的 RecyclerPool. 按线程 id 选择分段, 避免大量线程争用同一个队列的头尾.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class StripedRecyclerPool implements RecyclerPool<BufferRecycler> {
+
+    private final RecyclerPool<BufferRecycler>[] _stripes;
+    private final int _mask;
+
+    @SuppressWarnings("unchecked")
+    public StripedRecyclerPool(int stripeCount) {
+        this._stripes = new RecyclerPool[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this._stripes[i] = JsonRecyclerPools.newConcurrentDequePool();
+        }
+        this._mask = stripeCount - 1;
+    }
+
+    /// 不小于 CPU 数的 2 的幂
+    public static int stripeCount() {
+        var processors = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.max(processors * 2 - 1, 1));
+    }
+
+    /// 当前线程的分段下标 (stripeCount 必须为 2 的幂)
+    public static int stripeIndex(int mask) {
+        var id = Thread.currentThread().threadId();
+        // 混合高位 避免 id 连续分配时的规律性
+        return (int) (id ^ (id >>> 16)) & mask;
+    }
+
+    @Override
+    public BufferRecycler acquirePooled() {
+        return _stripes[stripeIndex(_mask)].acquirePooled();
+    }
+
+    @Override
+    public void releasePooled(BufferRecycler pooled) {
+        // 归还到当前线程的分段 (通常与取出时相同, 不同也无妨)
+        _stripes[stripeIndex(_mask)].releasePooled(pooled);
+    }
+
+    @Override
+    public int pooledCount() {
+        var count = 0;
+        for (var stripe : _stripes) {
+            count += stripe.pooledCount();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean clear() {
+        for (var stripe : _stripes) {
+            stripe.clear();
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,169 @@
+package dev.scx.format.json;
+
+import dev.scx.node.*;
+
+import java.util.Arrays;
+
+/// 对只含标量子节点的小容器按结构去重 (hash-consing), 结构相同的容器返回同一个实例.
+///
+/// 使用固定大小的直接映射表, 槽位冲突时覆盖旧条目, 因此内存有界, 但不保证找出所有重复.
+/// 只在同一个文档内共享, 每个文档开始前调用 [#reset()].
+///
+/// 相等要求完全一致 (字段顺序, 数字类型, 小数的 scale 均相同), 保证去重前后序列化结果不变.
+///
+/// @author scx567888
+/// @version 0.0.1
+final class SubtreeInterner {
+
+    /// 子节点数量上限, 超过的容器不参与去重
+    private static final int MAX_CHILDREN = 16;
+
+    private static final int TABLE_SIZE = 1024; // 必须是 2 的幂
+    private static final long NOT_ELIGIBLE = -1;
+
+    // 首次使用时再分配
+    private ContainerNode[] _nodes;
+    private int[] _hashes;
+    private int[] _epochs;
+    // 用代数区分不同文档的条目, 避免每个文档都清空整张表
+    private int _epoch;
+
+    public SubtreeInterner() {
+        this._epoch = 1;
+    }
+
+    public void reset() {
+        _epoch++;
+        if (_epoch == 0) {
+            if (_epochs != null) {
+                Arrays.fill(_epochs, 0);
+                Arrays.fill(_nodes, null);
+            }
+            _epoch = 1;
+        }
+    }
+
+    /// 返回结构相同的已有实例, 没有 (或不符合条件) 时返回 node 本身 (并记录下来)
+    public ContainerNode intern(ContainerNode node) {
+        var h = _hash(node);
+        if (h == NOT_ELIGIBLE) {
+            return node;
+        }
+        if (_nodes == null) {
+            _nodes = new ContainerNode[TABLE_SIZE];
+            _hashes = new int[TABLE_SIZE];
+            _epochs = new int[TABLE_SIZE];
+        }
+        var hash = (int) h;
+        var slot = (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
+        if (_epochs[slot] == _epoch && _hashes[slot] == hash) {
+            var existing = _nodes[slot];
+            if (_equals(existing, node)) {
+                return existing;
+            }
+        }
+        _nodes[slot] = node;
+        _hashes[slot] = hash;
+        _epochs[slot] = _epoch;
+        return node;
+    }
+
+    /// 不符合条件时返回 NOT_ELIGIBLE, 否则返回 32 位哈希 (作为非负 long)
+    private static long _hash(ContainerNode node) {
+        var size = switch (node) {
+            case ObjectNode objectNode -> objectNode.size();
+            case ArrayNode arrayNode -> arrayNode.size();
+        };
+        if (size > MAX_CHILDREN) {
+            return NOT_ELIGIBLE;
+        }
+        int h;
+        switch (node) {
+            case ObjectNode objectNode -> {
+                h = 1;
+                for (var field : objectNode) {
+                    var value = field.getValue();
+                    if (value instanceof ContainerNode) {
+                        return NOT_ELIGIBLE;
+                    }
+                    h = 31 * (31 * h + field.getKey().hashCode()) + _hashScalar(value);
+                }
+            }
+            case ArrayNode arrayNode -> {
+                h = 2;
+                for (var element : arrayNode) {
+                    if (element instanceof ContainerNode) {
+                        return NOT_ELIGIBLE;
+                    }
+                    h = 31 * h + _hashScalar(element);
+                }
+            }
+        }
+        return h & 0xFFFF_FFFFL;
+    }
+
+    private static int _hashScalar(Node node) {
+        return switch (node) {
+            case StringNode stringNode -> stringNode.value().hashCode();
+            case IntNode intNode -> Integer.hashCode(intNode.value());
+            case LongNode longNode -> Long.hashCode(longNode.value());
+            case FloatNode floatNode -> Float.hashCode(floatNode.value());
+            case DoubleNode doubleNode -> Double.hashCode(doubleNode.value());
+            case BigIntegerNode bigIntegerNode -> bigIntegerNode.value().hashCode();
+            case BigDecimalNode bigDecimalNode -> bigDecimalNode.value().hashCode();
+            case BooleanNode booleanNode -> Boolean.hashCode(booleanNode.value());
+            case NullNode _ -> 0;
+            case ContainerNode _ -> throw new IllegalArgumentException("不是标量节点");
+        };
+    }
+
+    private static boolean _equals(ContainerNode a, ContainerNode b) {
+        switch (a) {
+            case ObjectNode objectA -> {
+                if (!(b instanceof ObjectNode objectB) || objectA.size() != objectB.size()) {
+                    return false;
+                }
+                var iteratorB = objectB.iterator();
+                for (var fieldA : objectA) {
+                    var fieldB = iteratorB.next();
+                    if (!fieldA.getKey().equals(fieldB.getKey()) || !_scalarEquals(fieldA.getValue(), fieldB.getValue())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case ArrayNode arrayA -> {
+                if (!(b instanceof ArrayNode arrayB) || arrayA.size() != arrayB.size()) {
+                    return false;
+                }
+                var iteratorB = arrayB.iterator();
+                for (var elementA : arrayA) {
+                    if (!_scalarEquals(elementA, iteratorB.next())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    /// 类型和值都相同 (浮点数按位比较, 因此 0.0 与 -0.0 不同)
+    private static boolean _scalarEquals(Node a, Node b) {
+        if (a == b) {
+            return true;
+        }
+        return switch (a) {
+            case StringNode stringA -> b instanceof StringNode stringB && stringA.value().equals(stringB.value());
+            case IntNode intA -> b instanceof IntNode intB && intA.value() == intB.value();
+            case LongNode longA -> b instanceof LongNode longB && longA.value() == longB.value();
+            case FloatNode floatA -> b instanceof FloatNode floatB && Float.compare(floatA.value(), floatB.value()) == 0;
+            case DoubleNode doubleA -> b instanceof DoubleNode doubleB && Double.compare(doubleA.value(), doubleB.value()) == 0;
+            case BigIntegerNode bigIntegerA -> b instanceof BigIntegerNode bigIntegerB && bigIntegerA.value().equals(bigIntegerB.value());
+            case BigDecimalNode bigDecimalA -> b instanceof BigDecimalNode bigDecimalB && bigDecimalA.value().equals(bigDecimalB.value());
+            case BooleanNode booleanA -> b instanceof BooleanNode booleanB && booleanA.value() == booleanB.value();
+            case NullNode _ -> b instanceof NullNode;
+            case ContainerNode _ -> false;
+        };
+    }
+
+}
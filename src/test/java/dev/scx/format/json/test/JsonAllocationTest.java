@@ -0,0 +1,171 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.json.JsonFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/// 每次操作的分配字节数 与 同一次运行中 直接使用 Jackson 完成同样工作的分配字节数之比 不得超过记录的预算.
+/// 按比例而非绝对值比较, 受 JVM 版本 和 JIT 差异的影响较小. 预算按实测比例留出约 50% 余量,
+/// 若有意增加分配 请运行 main 重新测量并更新预算.
+public class JsonAllocationTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final byte[] fixture = JsonTestData.json.getBytes(UTF_8);
+    private static final byte[] wideObject = createWideObject();
+    private static final byte[] numberArray = createNumberArray();
+
+    public static void main(String[] args) throws Exception {
+        var options = new JsonNodeConvertOptions();
+        var adaptiveOptions = new JsonNodeConvertOptions().adaptiveOutputSizing(true);
+        for (var payload : new byte[][]{fixture, wideObject, numberArray}) {
+            var node = jsonNodeConverter.formatToNode(payload, UTF_8, options);
+            var read = measure(() -> jacksonRead(payload));
+            var copy = measure(() -> jacksonCopy(payload, OutputStream.nullOutputStream()));
+            var copyBytes = measure(() -> jacksonCopy(payload, new ByteArrayOutputStream()));
+            var copyString = measure(() -> jacksonCopyString(payload));
+            System.out.printf("%d bytes | jackson read %d | copy %d | copy bytes %d | copy string %d%n", payload.length, read, copy, copyBytes, copyString);
+            System.out.printf("%d bytes | formatToNode %.2f | nodeToFormat %.2f | nodeToFormatBytes %.2f | nodeToFormatString %.2f%n", payload.length,
+                (double) measure(() -> jsonNodeConverter.formatToNode(payload, UTF_8, options)) / read,
+                (double) measure(() -> jsonNodeConverter.nodeToFormat(node, OutputStream.nullOutputStream(), UTF_8, options)) / copy,
+                (double) measure(() -> jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options)) / copyBytes,
+                (double) measure(() -> jsonNodeConverter.nodeToFormatString(node, options)) / copyString);
+            System.out.printf("%d bytes | adaptiveOutputSizing(true) | nodeToFormatBytes %.2f | nodeToFormatString %.2f%n", payload.length,
+                (double) measure(() -> jsonNodeConverter.nodeToFormatBytes(node, UTF_8, adaptiveOptions)) / copyBytes,
+                (double) measure(() -> jsonNodeConverter.nodeToFormatString(node, adaptiveOptions)) / copyString);
+        }
+    }
+
+    @Test
+    public static void test1() throws Exception {
+        checkBudget(fixture, 4.5, 1.5, 1.6, 1.5);
+    }
+
+    @Test
+    public static void test2() throws Exception {
+        checkBudget(wideObject, 5.5, 1.5, 2.1, 1.5);
+    }
+
+    @Test
+    public static void test3() throws Exception {
+        checkBudget(numberArray, 2.8, 1.1, 1.2, 1.2);
+    }
+
+    private static void checkBudget(byte[] payload, double parseBudget, double writeBudget, double writeBytesBudget, double writeStringBudget) throws Exception {
+        Assert.assertTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        var options = new JsonNodeConvertOptions();
+        var node = jsonNodeConverter.formatToNode(payload, UTF_8, options);
+        assertBudget("formatToNode", measure(() -> jsonNodeConverter.formatToNode(payload, UTF_8, options)), measure(() -> jacksonRead(payload)), parseBudget);
+        assertBudget("nodeToFormat", measure(() -> jsonNodeConverter.nodeToFormat(node, OutputStream.nullOutputStream(), UTF_8, options)), measure(() -> jacksonCopy(payload, OutputStream.nullOutputStream())), writeBudget);
+        assertBudget("nodeToFormatBytes", measure(() -> jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options)), measure(() -> jacksonCopy(payload, new ByteArrayOutputStream())), writeBytesBudget);
+        assertBudget("nodeToFormatString", measure(() -> jsonNodeConverter.nodeToFormatString(node, options)), measure(() -> jacksonCopyString(payload)), writeStringBudget);
+    }
+
+    private static void assertBudget(String name, long allocated, long reference, double budget) {
+        var ratio = (double) allocated / reference;
+        Assert.assertTrue(ratio <= budget, name + " allocated " + allocated + " bytes/op, " + ratio + "x of the Jackson reference (" + reference + " bytes/op), budget " + budget + "x");
+    }
+
+    /// 预热后 取多次操作的平均值 (字节/次)
+    private static long measure(Operation operation) throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            operation.run();
+        }
+        var iterations = 200;
+        var threadId = Thread.currentThread().threadId();
+        var before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        var after = threadMXBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / iterations;
+    }
+
+    /// 参照: 读取所有 token 并取出每个值 (构建任何树都至少需要这些分配)
+    private static void jacksonRead(byte[] payload) {
+        try (var parser = jsonFactory.createParser(ObjectReadContext.empty(), payload)) {
+            while (parser.nextToken() != null) {
+                switch (parser.currentToken()) {
+                    case PROPERTY_NAME -> parser.currentName();
+                    case VALUE_STRING -> parser.getString();
+                    case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /// 参照: 逐个 token 复制到输出
+    private static void jacksonCopy(byte[] payload, OutputStream out) {
+        try (var parser = jsonFactory.createParser(ObjectReadContext.empty(), payload);
+             var generator = jsonFactory.createGenerator(ObjectWriteContext.empty(), out)) {
+            copy(parser, generator);
+        }
+    }
+
+    private static void jacksonCopyString(byte[] payload) {
+        var writer = new StringWriter();
+        try (var parser = jsonFactory.createParser(ObjectReadContext.empty(), payload);
+             var generator = jsonFactory.createGenerator(ObjectWriteContext.empty(), writer)) {
+            copy(parser, generator);
+        }
+        writer.toString();
+    }
+
+    private static void copy(JsonParser parser, JsonGenerator generator) {
+        while (parser.nextToken() != null) {
+            generator.copyCurrentEvent(parser);
+        }
+    }
+
+    private static byte[] createWideObject() {
+        var sb = new StringBuilder("{");
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("\"field").append(i).append("\":");
+            if (i % 2 == 0) {
+                sb.append(i);
+            } else {
+                sb.append("\"value").append(i).append('"');
+            }
+        }
+        return sb.append('}').toString().getBytes(UTF_8);
+    }
+
+    private static byte[] createNumberArray() {
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < 10000; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(i * 1.25);
+        }
+        return sb.append(']').toString().getBytes(UTF_8);
+    }
+
+    private interface Operation {
+
+        void run() throws Exception;
+
+    }
+
+}
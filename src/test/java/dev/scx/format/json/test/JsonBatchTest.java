@@ -0,0 +1,90 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonBatchResult;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.node.IntNode;
+import dev.scx.node.Node;
+import dev.scx.node.ObjectNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonBatchTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException {
+        test1();
+        benchmark();
+    }
+
+    @Test
+    public static void test1() {
+        var options = new JsonNodeConvertOptions();
+        var documents = _documents(1000);
+        // 每 100 个插入一个无效文档
+        for (int i = 50; i < documents.size(); i += 100) {
+            documents.set(i, "{\"id\":".getBytes(UTF_8));
+        }
+        for (var executor : new ForkJoinPool[]{null, ForkJoinPool.commonPool()}) {
+            var results = jsonNodeConverter.formatToNodes(documents, executor, options);
+            Assert.assertEquals(results.size(), documents.size());
+            var nodes = new ArrayList<Node>();
+            for (int i = 0; i < results.size(); i++) {
+                var result = results.get(i);
+                if (i % 100 == 50) {
+                    Assert.assertFalse(result.isSuccess());
+                    Assert.assertTrue(result.error() instanceof FormatToNodeException);
+                } else {
+                    Assert.assertEquals(((IntNode) ((ObjectNode) result.value()).get("id")).value(), i);
+                    nodes.add(result.value());
+                }
+            }
+            var bytes = jsonNodeConverter.nodesToFormatBytes(nodes, executor, options);
+            Assert.assertEquals(bytes.size(), nodes.size());
+            Assert.assertTrue(bytes.stream().allMatch(JsonBatchResult::isSuccess));
+            Assert.assertEquals(bytes.get(1).value(), documents.get(1));
+        }
+    }
+
+    private static List<byte[]> _documents(int count) {
+        var documents = new ArrayList<byte[]>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(("{\"id\":" + i + ",\"type\":\"order.created\",\"amount\":" + i * 3 + ".25,\"tags\":[\"a\",\"b\"],\"ok\":true}").getBytes(UTF_8));
+        }
+        return documents;
+    }
+
+    public static void benchmark() throws FormatToNodeException {
+        var options = new JsonNodeConvertOptions();
+        var documents = _documents(10000);
+        for (int round = 0; round < 5; round++) {
+            var t1 = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                for (var document : documents) {
+                    jsonNodeConverter.formatToNode(document, UTF_8, options);
+                }
+            }
+            var t2 = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                jsonNodeConverter.formatToNodes(documents, options);
+            }
+            var t3 = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                jsonNodeConverter.formatToNodes(documents, ForkJoinPool.commonPool(), options);
+            }
+            var t4 = System.nanoTime();
+            System.out.printf("loop: %d ms, batch: %d ms, batch (commonPool): %d ms%n",
+                (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000, (t4 - t3) / 1_000_000);
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonCancellationException;
+import dev.scx.format.json.JsonCancellationToken;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.JsonRewriteRules;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonCancellationTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    private static final String large = createLarge();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException {
+        test1();
+        test2();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        var node = jsonNodeConverter.formatToNode(large, new JsonNodeConvertOptions().timeout(Duration.ofMinutes(1)));
+
+        // 已取消
+        var token = new JsonCancellationToken();
+        token.cancel();
+        var e1 = Assert.expectThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToNode(large, new JsonNodeConvertOptions().cancellationToken(token)));
+        Assert.assertFalse(((JsonCancellationException) e1.getCause()).timedOut());
+        var e2 = Assert.expectThrows(NodeToFormatException.class, () -> jsonNodeConverter.nodeToFormatBytes(node, UTF_8, new JsonNodeConvertOptions().cancellationToken(token)));
+        Assert.assertFalse(((JsonCancellationException) e2.getCause()).timedOut());
+
+        // 超时
+        var timeout = new JsonNodeConvertOptions().timeout(Duration.ofNanos(1));
+        var e3 = Assert.expectThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToNode(large.getBytes(UTF_8), UTF_8, timeout));
+        Assert.assertTrue(((JsonCancellationException) e3.getCause()).timedOut());
+        var e4 = Assert.expectThrows(NodeToFormatException.class, () -> jsonNodeConverter.nodeToFormatString(node, timeout.canonical(true)));
+        Assert.assertTrue(((JsonCancellationException) e4.getCause()).timedOut());
+        var e5 = Assert.expectThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToNode(large, new JsonNodeConvertOptions().cancellationToken(JsonCancellationToken.ofTimeout(Duration.ZERO))));
+        Assert.assertTrue(((JsonCancellationException) e5.getCause()).timedOut());
+    }
+
+    /// 流式路径 (rewrite, jsonPatch) 在值之间复制 token 时 同样检查取消和超时, 即使没有物化任何值
+    @Test
+    public static void test2() throws FormatToNodeException {
+        var token = new JsonCancellationToken();
+        token.cancel();
+        var cancelled = new JsonNodeConvertOptions().cancellationToken(token);
+        var timeout = new JsonNodeConvertOptions().timeout(Duration.ofNanos(1));
+        var bytes = large.getBytes(UTF_8);
+        var rules = new JsonRewriteRules().drop("missing");
+        var patch = jsonNodeConverter.formatToNode("[{\"op\": \"add\", \"path\": \"/99999/x\", \"value\": 1}]", new JsonNodeConvertOptions());
+        for (var options : new JsonNodeConvertOptions[]{cancelled, timeout}) {
+            var e1 = Assert.expectThrows(FormatToNodeException.class, () -> jsonNodeConverter.rewriteBytes(bytes, rules, options));
+            Assert.assertTrue(e1.getCause() instanceof JsonCancellationException);
+            var e2 = Assert.expectThrows(FormatToNodeException.class, () -> jsonNodeConverter.jsonPatch(new ByteArrayInputStream(bytes), new ByteArrayOutputStream(), patch, options));
+            Assert.assertTrue(e2.getCause() instanceof JsonCancellationException);
+        }
+    }
+
+    private static String createLarge() {
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < 100_000; i++) {
+            sb.append(i > 0 ? "," : "").append("{\"id\":").append(i).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+}
@@ -0,0 +1,51 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonCanonicalTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws Exception {
+        test1();
+        test2();
+    }
+
+    /// RFC 8785 附录中的示例
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        var json = """
+            {
+              "numbers": [333333333.33333329, 1E30, 4.50, 2e-3, 0.000000000000000000000000001],
+              "string": "\\u20ac$\\u000F\\u000aA'\\u0042\\u0022\\u005c\\\\\\"\\/",
+              "literals": [null, true, false]
+            }""";
+        var options = new JsonNodeConvertOptions().canonical(true).prettyPrint(true);
+        var node = jsonNodeConverter.formatToNode(json, options);
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node, options),
+            "{\"literals\":[null,true,false],\"numbers\":[333333333.3333333,1e+30,4.5,0.002,1e-27],\"string\":\"€$\\u000f\\nA'B\\\"\\\\\\\\\\\"/\"}");
+    }
+
+    @Test
+    public static void test2() throws FormatToNodeException, NodeToFormatException, NoSuchAlgorithmException {
+        var options = new JsonNodeConvertOptions().canonical(true);
+        var a = jsonNodeConverter.formatToNode("{\"b\": 1.0, \"a\": [\"\\uD83D\\ude80\"]}", options);
+        var b = jsonNodeConverter.formatToNode("{\"a\": [\"🚀\"], \"b\": 1}", options);
+        var digestA = jsonNodeConverter.nodeToFormatDigest(a, MessageDigest.getInstance("SHA-256"), options);
+        var digestB = jsonNodeConverter.nodeToFormatDigest(b, MessageDigest.getInstance("SHA-256"), options);
+        var expected = MessageDigest.getInstance("SHA-256").digest("{\"a\":[\"🚀\"],\"b\":1}".getBytes(UTF_8));
+        Assert.assertEquals(digestA, expected);
+        Assert.assertEquals(digestB, expected);
+    }
+
+}
@@ -0,0 +1,124 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.node.*;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonConcurrencyTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws Throwable {
+        test1();
+        benchmark();
+    }
+
+    /// 共享同一个 converter 的 平台线程 和 虚拟线程 结果必须一致
+    @Test
+    public static void test1() throws Throwable {
+        var options = new JsonNodeConvertOptions();
+        var documents = new byte[64][];
+        var expected = new String[64];
+        for (int i = 0; i < documents.length; i++) {
+            var node = createDocument(i, 200, i % 2 == 0);
+            documents[i] = jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options);
+            expected[i] = new String(documents[i], UTF_8);
+        }
+        for (var virtual : new boolean[]{false, true}) {
+            runThreads(virtual, 16, t -> {
+                for (int i = 0; i < 50; i++) {
+                    var index = (t + i) % documents.length;
+                    var node = jsonNodeConverter.formatToNode(documents[index], UTF_8, options);
+                    Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node, options), expected[index]);
+                }
+            });
+        }
+    }
+
+    /// 吞吐量随线程数的变化 (非严格基准测试).
+    /// 低基数: 所有文档字段名相同 (命中符号表). 高基数: 每个文档的字段名都不同 (不断向符号表新增).
+    public static void benchmark() throws Throwable {
+        var options = new JsonNodeConvertOptions();
+        System.out.println("processors: " + Runtime.getRuntime().availableProcessors());
+        for (var highCardinality : new boolean[]{false, true}) {
+            var documents = new byte[256][];
+            for (int i = 0; i < documents.length; i++) {
+                documents[i] = jsonNodeConverter.nodeToFormatBytes(createDocument(i, 500, highCardinality), UTF_8, options);
+            }
+            var node = jsonNodeConverter.formatToNode(documents[0], UTF_8, options);
+            for (var virtual : new boolean[]{false, true}) {
+                for (int threads = 1; threads <= 64; threads *= 2) {
+                    var iterations = 2048 / threads;
+                    var t0 = System.nanoTime();
+                    runThreads(virtual, threads, t -> {
+                        for (int i = 0; i < iterations; i++) {
+                            jsonNodeConverter.formatToNode(documents[(t * iterations + i) % documents.length], UTF_8, options);
+                        }
+                    });
+                    var t1 = System.nanoTime();
+                    runThreads(virtual, threads, t -> {
+                        for (int i = 0; i < iterations; i++) {
+                            jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options);
+                        }
+                    });
+                    var t2 = System.nanoTime();
+                    var total = (double) iterations * threads;
+                    System.out.printf("%s cardinality, %s threads: %2d | parse %8.0f ops/s | serialize %8.0f ops/s%n",
+                        highCardinality ? "high" : "low ", virtual ? "virtual " : "platform", threads,
+                        total / ((t1 - t0) / 1e9), total / ((t2 - t1) / 1e9));
+                }
+            }
+        }
+    }
+
+    private static ObjectNode createDocument(int seed, int fieldCount, boolean highCardinality) {
+        var node = new ObjectNode();
+        for (int i = 0; i < fieldCount; i++) {
+            var name = highCardinality ? "field-" + seed + "-" + i : "field-" + i;
+            var value = new ObjectNode();
+            value.put("id", new IntNode(i));
+            value.put("name", new StringNode("name-" + i));
+            value.put("score", new DoubleNode(i * 0.5));
+            node.put(name, value);
+        }
+        return node;
+    }
+
+    private static void runThreads(boolean virtual, int count, Task task) throws Throwable {
+        var error = new AtomicReference<Throwable>();
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < count; i++) {
+            var t = i;
+            Runnable runnable = () -> {
+                try {
+                    task.run(t);
+                } catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                }
+            };
+            threads.add(virtual ? Thread.ofVirtual().start(runnable) : Thread.ofPlatform().start(runnable));
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        if (error.get() != null) {
+            throw error.get();
+        }
+    }
+
+    private interface Task {
+
+        void run(int threadIndex) throws FormatToNodeException, NodeToFormatException;
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.json.JsonDifference;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.node.IntNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonDiffTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws IOException, FormatToNodeException {
+        test1();
+        test2();
+        test3();
+    }
+
+    @Test
+    public static void test1() throws IOException, FormatToNodeException {
+        var a = """
+            {"name":"a","version":1,"tags":["x","y"],"db":{"host":"h1","port":5432},"extra":true}""";
+        var b = """
+            {"name":"a","version":1.0,"tags":["x","y","z"],"db":{"port":5433,"host":"h1"},"added":null}""";
+
+        var differences = diff(a, b, true, false);
+        Assert.assertEquals(differences.stream().map(JsonDifference::path).toList(), List.of("/tags/2", "/db/port", "/extra", "/added"));
+        Assert.assertNull(differences.getFirst().oldValue());
+        Assert.assertEquals(((IntNode) differences.get(1).newValue()).value(), 5433);
+
+        // 不忽略字段顺序时 顺序不同即视为 删除 + 新增
+        var ordered = diff(a, b, false, false);
+        Assert.assertEquals(ordered.stream().map(JsonDifference::path).toList(), List.of("/tags/2", "/db/host", "/db/port", "/db/port", "/db/host", "/extra", "/added"));
+
+        // 在第一处差异处停止
+        Assert.assertEquals(diff(a, b, true, true).size(), 1);
+    }
+
+    @Test
+    public static void test2() throws IOException, FormatToNodeException {
+        var a = "{\"a\":[1,2,{\"b\":\"c\"}],\"d\":{\"e\":null,\"f\":false}}";
+        var b = "{\"d\":{\"f\":false,\"e\":null},\"a\":[1,2.0,{\"b\":\"c\"}]}";
+        Assert.assertTrue(jsonNodeConverter.jsonEquals(input(a), input(b), true, new JsonNodeConvertOptions()));
+        Assert.assertFalse(jsonNodeConverter.jsonEquals(input(a), input(b), false, new JsonNodeConvertOptions()));
+        Assert.assertFalse(jsonNodeConverter.jsonEquals(input("[1,2]"), input("[1,2,3]"), true, new JsonNodeConvertOptions()));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.jsonEquals(input("[1,2]"), input("[1,2"), true, new JsonNodeConvertOptions()));
+    }
+
+    /// NaN 和 Infinity 按值比较 (NaN 与 NaN 相等)
+    @Test
+    public static void test3() throws IOException, FormatToNodeException {
+        var options = new JsonNodeConvertOptions().allowNonNumericNumbers(true);
+        Assert.assertTrue(jsonNodeConverter.jsonEquals(input("[NaN,Infinity,-Infinity]"), input("[NaN,Infinity,-Infinity]"), true, options));
+        Assert.assertFalse(jsonNodeConverter.jsonEquals(input("[Infinity]"), input("[-Infinity]"), true, options));
+        Assert.assertFalse(jsonNodeConverter.jsonEquals(input("[NaN]"), input("[1]"), true, options));
+        Assert.assertFalse(jsonNodeConverter.jsonEquals(input("[1]"), input("[Infinity]"), true, options));
+        Assert.assertTrue(diff("{\"a\":NaN}", "{\"a\":NaN}", options).isEmpty());
+    }
+
+    private static List<JsonDifference> diff(String a, String b, boolean ignoreKeyOrder, boolean stopAtFirst) throws IOException, FormatToNodeException {
+        return jsonNodeConverter.diff(input(a), input(b), ignoreKeyOrder, stopAtFirst, new JsonNodeConvertOptions());
+    }
+
+    private static List<JsonDifference> diff(String a, String b, JsonNodeConvertOptions options) throws IOException, FormatToNodeException {
+        return jsonNodeConverter.diff(input(a), input(b), true, false, options);
+    }
+
+    private static ByteArrayInputStream input(String json) {
+        return new ByteArrayInputStream(json.getBytes(UTF_8));
+    }
+
+}
@@ -0,0 +1,69 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import static dev.scx.format.json.test.JsonTestData.json;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonGzipTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException, IOException {
+        test1();
+        test2();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException, IOException {
+        var options = new JsonNodeConvertOptions();
+        var expected = jsonNodeConverter.nodeToFormatString(jsonNodeConverter.formatToNode(json, options), options);
+
+        // 压缩输出 可被 JDK 解压, 输入自动识别
+        var gzipBytes = jsonNodeConverter.nodeToFormatBytes(jsonNodeConverter.formatToNode(json, options), UTF_8, options.gzip(true));
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(gzipBytes))) {
+            Assert.assertEquals(new String(in.readAllBytes(), UTF_8), expected);
+        }
+        for (int i = 0; i < 100; i++) {
+            var node = jsonNodeConverter.formatToNode(gzipBytes, UTF_8, new JsonNodeConvertOptions());
+            Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node, new JsonNodeConvertOptions()), expected);
+            var node2 = jsonNodeConverter.formatToNode(new ByteArrayInputStream(gzipBytes), UTF_8, new JsonNodeConvertOptions());
+            Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node2, new JsonNodeConvertOptions()), expected);
+        }
+        // 未压缩的 InputStream 不受影响
+        var node3 = jsonNodeConverter.formatToNode(new ByteArrayInputStream(json.getBytes(UTF_8)), UTF_8, new JsonNodeConvertOptions());
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node3, new JsonNodeConvertOptions()), expected);
+    }
+
+    /// 文件输入 同样自动识别 (在读取的流中探测魔数)
+    @Test
+    public static void test2() throws FormatToNodeException, NodeToFormatException, IOException {
+        var options = new JsonNodeConvertOptions();
+        var node = jsonNodeConverter.formatToNode(json, options);
+        var expected = jsonNodeConverter.nodeToFormatString(node, options);
+        var gzipFile = Files.createTempFile("scx-json-gzip", ".json.gz").toFile();
+        var plainFile = Files.createTempFile("scx-json-gzip", ".json").toFile();
+        try {
+            jsonNodeConverter.nodeToFormatFile(node, gzipFile, UTF_8, new JsonNodeConvertOptions().gzip(true));
+            jsonNodeConverter.nodeToFormatFile(node, plainFile, UTF_8, options);
+            Assert.assertEquals(jsonNodeConverter.nodeToFormatString(jsonNodeConverter.formatToNode(gzipFile, UTF_8, options), options), expected);
+            Assert.assertEquals(jsonNodeConverter.nodeToFormatString(jsonNodeConverter.formatToNode(plainFile, UTF_8, options), options), expected);
+            // 关闭识别时 压缩文件按 JSON 解析失败
+            Assert.expectThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToNode(gzipFile, UTF_8, new JsonNodeConvertOptions().detectGzip(false)));
+        } finally {
+            Files.delete(gzipFile.toPath());
+            Files.delete(plainFile.toPath());
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.DuplicateFieldPolicy;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.node.ArrayNode;
+import dev.scx.node.Node;
+import dev.scx.node.ObjectNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+
+public class JsonInternSubtreesTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException {
+        test1();
+        test2();
+        benchmark();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        var json = """
+            {"a":{"currency":"CNY","unit":"cent"},"b":{"currency":"CNY","unit":"cent"},"c":{"unit":"cent","currency":"CNY"},\
+            "d":[["r","w"],["r","w"],["r","w",1],["r","w",1.0],["r","w",1.0]],"e":{"x":{"currency":"CNY","unit":"cent"}}}""";
+        var options = new JsonNodeConvertOptions().internSubtrees(true);
+        var node = (ObjectNode) jsonNodeConverter.formatToNode(json, options);
+        var d = (ArrayNode) node.get("d");
+        Assert.assertSame(node.get("a"), node.get("b"));
+        Assert.assertSame(node.get("a"), ((ObjectNode) node.get("e")).get("x"));
+        // 字段顺序或数字类型不同 不共享
+        Assert.assertNotSame(node.get("a"), node.get("c"));
+        Assert.assertSame(d.get(0), d.get(1));
+        Assert.assertNotSame(d.get(1), d.get(2));
+        Assert.assertNotSame(d.get(2), d.get(3));
+        Assert.assertSame(d.get(3), d.get(4));
+        // 输出不变
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node, options), json);
+
+        // 默认不共享
+        var plain = (ObjectNode) jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions());
+        Assert.assertNotSame(plain.get("a"), plain.get("b"));
+    }
+
+    @Test
+    public static void test2() throws FormatToNodeException, NodeToFormatException {
+        var json = "{\"a\":[1],\"a\":[1],\"b\":[1]}";
+        // 重复字段 (USE_OLD) 时 被丢弃的值不会替换掉保留的值
+        var useOld = (ObjectNode) jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions().internSubtrees(true).duplicateFieldPolicy(DuplicateFieldPolicy.USE_OLD));
+        Assert.assertSame(useOld.get("a"), useOld.get("b"));
+        // MERGE 会修改已完成的数组, 此时不去重
+        var merge = (ObjectNode) jsonNodeConverter.formatToNode("{\"z\":[1],\"a\":[1],\"a\":2}", new JsonNodeConvertOptions().internSubtrees(true).duplicateFieldPolicy(DuplicateFieldPolicy.MERGE));
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(merge, new JsonNodeConvertOptions()), "{\"z\":[1],\"a\":[1,2]}");
+
+        // 同一个会话中 不同文档之间不共享
+        var session = jsonNodeConverter.newSession(new JsonNodeConvertOptions().internSubtrees(true));
+        var first = (ObjectNode) session.formatToNode("{\"a\":[1]}");
+        var second = (ObjectNode) session.formatToNode("{\"a\":[1]}");
+        Assert.assertNotSame(first.get("a"), second.get("a"));
+    }
+
+    public static void benchmark() throws FormatToNodeException {
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            sb.append(i > 0 ? "," : "").append("{\"id\":").append(i)
+                .append(",\"price\":{\"currency\":\"CNY\",\"unit\":\"cent\"},\"permissions\":[\"read\",\"write\",\"share\"]}");
+        }
+        var json = sb.append(']').toString();
+        for (var internSubtrees : new boolean[]{false, true}) {
+            var options = new JsonNodeConvertOptions().internSubtrees(internSubtrees);
+            for (int i = 0; i < 20; i++) {
+                jsonNodeConverter.formatToNode(json, options);
+            }
+            var t1 = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                jsonNodeConverter.formatToNode(json, options);
+            }
+            var t2 = System.nanoTime();
+            var retained = new ArrayList<Node>();
+            var before = usedMemory();
+            for (int i = 0; i < 10; i++) {
+                retained.add(jsonNodeConverter.formatToNode(json, options));
+            }
+            var after = usedMemory();
+            System.out.printf("internSubtrees(%s): parse %d us/op, retained %d KB/doc (%d docs)%n", internSubtrees, (t2 - t1) / 20_000, (after - before) / 10 / 1024, retained.size());
+        }
+    }
+
+    private static long usedMemory() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
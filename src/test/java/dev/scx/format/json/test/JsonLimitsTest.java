@@ -0,0 +1,84 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tools.jackson.core.exc.StreamReadException;
+
+import java.util.function.LongFunction;
+
+import static dev.scx.format.json.test.JsonTestData.json;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonLimitsTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    private static final byte[] document = """
+        {"id": 1, "name": "scx", "tags": ["a", "b", "c"], "big": 12345678901, "flags": [true, false, null],
+         "nested": {"list": [[1, 2], {"k": "v"}], "huge": 123456789012345678901234567890}}""".getBytes(UTF_8);
+
+    public static void main(String[] args) throws FormatToNodeException {
+        test1();
+        test2();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException {
+        // 限制内 正常解析
+        jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions().maxNodeCount(1000).maxObjectEntries(100).maxArrayLength(100).maxRetainedBytes(100_000));
+        assertLimitExceeded(new JsonNodeConvertOptions().maxNodeCount(10));
+        assertLimitExceeded(new JsonNodeConvertOptions().maxObjectEntries(3));
+        assertLimitExceeded(new JsonNodeConvertOptions().maxArrayLength(2));
+        assertLimitExceeded(new JsonNodeConvertOptions().maxRetainedBytes(1000));
+    }
+
+    /// validate 与 formatToNode 在相同的限制值上 同时通过或同时失败
+    @Test
+    public static void test2() throws FormatToNodeException {
+        assertSameBoundary(n -> new JsonNodeConvertOptions().maxNodeCount(n), 30);
+        assertSameBoundary(n -> new JsonNodeConvertOptions().maxObjectEntries((int) n), 10);
+        assertSameBoundary(n -> new JsonNodeConvertOptions().maxArrayLength((int) n), 5);
+        assertSameBoundary(n -> new JsonNodeConvertOptions().maxRetainedBytes(n), 2000);
+    }
+
+    private static void assertLimitExceeded(JsonNodeConvertOptions options) {
+        var e = Assert.expectThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToNode(json, options));
+        // 带有位置信息
+        var cause = (StreamReadException) e.getCause();
+        Assert.assertTrue(cause.getLocation().getLineNr() > 0);
+    }
+
+    private static void assertSameBoundary(LongFunction<JsonNodeConvertOptions> limit, long max) throws FormatToNodeException {
+        var passed = 0;
+        for (long n = 0; n <= max; n++) {
+            var options = limit.apply(n);
+            var parsed = passes(() -> jsonNodeConverter.formatToNode(document, UTF_8, options));
+            var validated = passes(() -> jsonNodeConverter.validate(document, options));
+            Assert.assertEquals(validated, parsed, "limit " + n);
+            if (validated) {
+                passed++;
+            }
+        }
+        // 边界位于测试范围内
+        Assert.assertTrue(passed > 0 && passed <= max);
+    }
+
+    private static boolean passes(Operation operation) {
+        try {
+            operation.run();
+            return true;
+        } catch (FormatToNodeException e) {
+            return false;
+        }
+    }
+
+    private interface Operation {
+
+        void run() throws FormatToNodeException;
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.node.Node;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import tools.jackson.core.util.JsonpCharacterEscapes;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonNameCacheTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+    private static final JsonNodeConvertOptions options = new JsonNodeConvertOptions();
+    // 设置 characterEscapes 时不使用缓存
+    private static final JsonNodeConvertOptions uncachedOptions = new JsonNodeConvertOptions().characterEscapes(JsonpCharacterEscapes.instance());
+
+    public static void main(String[] args) throws Exception {
+        test1();
+        test2();
+        test3();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        // 缓存的字段名 与 直接写入的结果必须一致 (设置 characterEscapes 时不使用缓存)
+        var node = jsonNodeConverter.formatToNode("""
+            {"id":1,"a/b":2,"小明":3,"\\u0001":4,"🚀":5,"q\\"":6,"nested":{"id":[{"id":7}]}}""", new JsonNodeConvertOptions());
+        for (var escapeNonAscii : new boolean[]{false, true}) {
+            var options = new JsonNodeConvertOptions().escapeNonAscii(escapeNonAscii);
+            var uncachedOptions = new JsonNodeConvertOptions().escapeNonAscii(escapeNonAscii).characterEscapes(JsonpCharacterEscapes.instance());
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals(jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options), jsonNodeConverter.nodeToFormatBytes(node, UTF_8, uncachedOptions));
+                Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node, options), jsonNodeConverter.nodeToFormatString(node, uncachedOptions));
+            }
+        }
+    }
+
+    /// 字段名数量远超缓存大小 以及 哈希相同的字段名 ("Aa" 和 "BB") 交替出现时, 输出不变
+    @Test
+    public static void test2() throws FormatToNodeException, NodeToFormatException {
+        var wide = createWideObject("field", 10_000);
+        var small = jsonNodeConverter.formatToNode("{\"Aa\":1,\"BB\":2,\"id\":{\"Aa\":3,\"BB\":4}}", options);
+        for (int i = 0; i < 3; i++) {
+            assertSameOutput(wide);
+            assertSameOutput(small);
+        }
+    }
+
+    /// 多个线程同时写出不同的字段名集合
+    @Test
+    public static void test3() throws Exception {
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int i = 0; i < 8; i++) {
+                var node = createWideObject("t" + i + "_", 3000);
+                tasks.add(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        assertSameOutput(node);
+                    }
+                    return null;
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        }
+    }
+
+    private static void assertSameOutput(Node node) throws NodeToFormatException {
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options), jsonNodeConverter.nodeToFormatBytes(node, UTF_8, uncachedOptions));
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(node, options), jsonNodeConverter.nodeToFormatString(node, uncachedOptions));
+    }
+
+    private static Node createWideObject(String prefix, int size) throws FormatToNodeException {
+        var sb = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            sb.append(i > 0 ? "," : "").append('"').append(prefix).append(i).append("\":").append(i);
+        }
+        return jsonNodeConverter.formatToNode(sb.append('}').toString(), options);
+    }
+
+}
@@ -0,0 +1,114 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.FloatLiteralPolicy;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.node.*;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+public class JsonNumberTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException {
+        test1();
+        test2();
+        benchmark();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException {
+        var json = "[1.5,0.1,3.141592653589793,1e400,0.10000000000000000001,1.0E-320,0]";
+
+        var doubles = (ArrayNode) jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions());
+        Assert.assertTrue(doubles.get(0) instanceof DoubleNode);
+        Assert.assertTrue(doubles.get(1) instanceof DoubleNode);
+
+        var decimals = (ArrayNode) jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions().floatLiteralPolicy(FloatLiteralPolicy.BIG_DECIMAL));
+        Assert.assertEquals(((BigDecimalNode) decimals.get(4)).value(), new BigDecimal("0.10000000000000000001"));
+
+        var exact = (ArrayNode) jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions().floatLiteralPolicy(FloatLiteralPolicy.EXACT));
+        Assert.assertEquals(((FloatNode) exact.get(0)).value(), 1.5f);
+        Assert.assertEquals(((FloatNode) exact.get(1)).value(), 0.1f);
+        Assert.assertEquals(((DoubleNode) exact.get(2)).value(), Math.PI);
+        // 超出 double 范围 / 超出 double 精度 / 非正规数
+        Assert.assertTrue(exact.get(3) instanceof BigDecimalNode);
+        Assert.assertTrue(exact.get(4) instanceof BigDecimalNode);
+        Assert.assertEquals(((DoubleNode) exact.get(5)).value(), 1.0E-320);
+        // 整数字面量不受影响
+        Assert.assertTrue(exact.get(6) instanceof IntNode);
+
+        // 零保留符号
+        var zeros = (ArrayNode) jsonNodeConverter.formatToNode("[-0.0,0.0,-0e5,-0.000]", new JsonNodeConvertOptions().floatLiteralPolicy(FloatLiteralPolicy.EXACT));
+        Assert.assertEquals(Float.floatToRawIntBits(((FloatNode) zeros.get(0)).value()), Float.floatToRawIntBits(-0.0f));
+        Assert.assertEquals(Float.floatToRawIntBits(((FloatNode) zeros.get(1)).value()), Float.floatToRawIntBits(0.0f));
+        Assert.assertEquals(Float.floatToRawIntBits(((FloatNode) zeros.get(2)).value()), Float.floatToRawIntBits(-0.0f));
+        Assert.assertEquals(Float.floatToRawIntBits(((FloatNode) zeros.get(3)).value()), Float.floatToRawIntBits(-0.0f));
+    }
+
+    @Test
+    public static void test2() throws FormatToNodeException, NodeToFormatException {
+        // 快速解析 / 快速写出 与默认实现结果一致
+        var json = _payload(2000);
+        var fast = new JsonNodeConvertOptions().useFastDoubleParser(true).useFastBigNumberParser(true).useFastDoubleWriter(true);
+        var slow = new JsonNodeConvertOptions().useFastDoubleParser(false).useFastBigNumberParser(false).useFastDoubleWriter(false);
+        var fastNode = jsonNodeConverter.formatToNode(json, fast);
+        var slowNode = jsonNodeConverter.formatToNode(json, slow);
+        var expected = jsonNodeConverter.nodeToFormatString(slowNode, slow);
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(fastNode, slow), expected);
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(slowNode, fast), expected);
+    }
+
+    /// 数值密集的负载: 坐标 / 价格 / 大数
+    private static String _payload(int count) {
+        var random = new Random(42);
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"lat\":").append(random.nextDouble() * 180 - 90)
+                .append(",\"lng\":").append(random.nextDouble() * 360 - 180)
+                .append(",\"price\":").append(new BigDecimal(random.nextInt(1000000)).movePointLeft(2))
+                .append(",\"total\":").append(new BigDecimal(random.nextLong()).pow(2).movePointLeft(3))
+                .append(",\"ratio\":").append(random.nextFloat())
+                .append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    public static void benchmark() throws FormatToNodeException, NodeToFormatException {
+        var json = _payload(20000);
+        var fast = new JsonNodeConvertOptions().useFastDoubleParser(true).useFastBigNumberParser(true).useFastDoubleWriter(true);
+        var slow = new JsonNodeConvertOptions().useFastDoubleParser(false).useFastBigNumberParser(false).useFastDoubleWriter(false);
+        var node = jsonNodeConverter.formatToNode(json, slow);
+        for (int round = 0; round < 5; round++) {
+            var t1 = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                jsonNodeConverter.formatToNode(json, slow);
+            }
+            var t2 = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                jsonNodeConverter.formatToNode(json, fast);
+            }
+            var t3 = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                jsonNodeConverter.nodeToFormatString(node, slow);
+            }
+            var t4 = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                jsonNodeConverter.nodeToFormatString(node, fast);
+            }
+            var t5 = System.nanoTime();
+            System.out.printf("read default: %d ms, read fast: %d ms, write default: %d ms, write fast: %d ms%n",
+                (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000, (t4 - t3) / 1_000_000, (t5 - t4) / 1_000_000);
+        }
+    }
+
+}
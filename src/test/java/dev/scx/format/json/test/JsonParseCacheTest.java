@@ -0,0 +1,104 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.json.FloatLiteralPolicy;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.JsonParseCache;
+import dev.scx.node.IntNode;
+import dev.scx.node.ObjectNode;
+import dev.scx.node.StringNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonParseCacheTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws IOException, FormatToNodeException {
+        test1();
+        test2();
+        benchmark();
+    }
+
+    @Test
+    public static void test1() throws IOException, FormatToNodeException {
+        var cache = new JsonParseCache(jsonNodeConverter, 1024 * 1024);
+        var options = new JsonNodeConvertOptions();
+        var file = Files.createTempFile("scx-json-cache", ".json");
+        try {
+            Files.writeString(file, "{\"a\":1}");
+            var first = (ObjectNode) cache.formatToNode(file.toFile(), options);
+            // 返回的是副本, 修改不影响缓存
+            first.put("a", new StringNode("changed"));
+            var second = (ObjectNode) cache.formatToNode(file.toFile(), new JsonNodeConvertOptions());
+            Assert.assertEquals(((IntNode) second.get("a")).value(), 1);
+            Assert.assertEquals(cache.stats().hits(), 1);
+
+            // 文件被修改
+            Files.writeString(file, "{\"a\":22}");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+            Assert.assertEquals(((IntNode) ((ObjectNode) cache.formatToNode(file.toFile(), options)).get("a")).value(), 22);
+            // options 不同
+            cache.formatToNode(file.toFile(), new JsonNodeConvertOptions().floatLiteralPolicy(FloatLiteralPolicy.EXACT));
+            Assert.assertEquals(cache.stats().misses(), 3);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public static void test2() throws FormatToNodeException {
+        var cache = new JsonParseCache(jsonNodeConverter, 2000);
+        var options = new JsonNodeConvertOptions();
+        for (int i = 0; i < 20; i++) {
+            cache.formatToNode(("{\"id\":" + i + ",\"name\":\"n" + i + "\"}").getBytes(UTF_8), options);
+        }
+        var stats = cache.stats();
+        Assert.assertEquals(stats.misses(), 20);
+        Assert.assertTrue(stats.evictions() > 0);
+        Assert.assertTrue(stats.retainedBytes() <= 2000);
+        Assert.assertEquals(stats.entryCount() + stats.evictions(), 20);
+
+        // 最近使用的仍在缓存中, 内容相同的新数组同样命中
+        var node = (ObjectNode) cache.formatToNode("{\"id\":19,\"name\":\"n19\"}".getBytes(UTF_8), options);
+        Assert.assertEquals(((IntNode) node.get("id")).value(), 19);
+        Assert.assertEquals(cache.stats().hits(), 1);
+    }
+
+    public static void benchmark() throws IOException, FormatToNodeException {
+        var sb = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < 2000; i++) {
+            sb.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"code\":\"C").append(i).append("\",\"rate\":").append(i * 0.01).append('}');
+        }
+        var file = Files.createTempFile("scx-json-cache", ".json");
+        try {
+            Files.writeString(file, sb.append("]}"));
+            var cache = new JsonParseCache(jsonNodeConverter, 64 * 1024 * 1024);
+            var options = new JsonNodeConvertOptions();
+            for (int round = 0; round < 5; round++) {
+                var t1 = System.nanoTime();
+                for (int i = 0; i < 200; i++) {
+                    jsonNodeConverter.formatToNode(file.toFile(), UTF_8, options);
+                }
+                var t2 = System.nanoTime();
+                for (int i = 0; i < 200; i++) {
+                    cache.formatToNode(file.toFile(), options);
+                }
+                var t3 = System.nanoTime();
+                System.out.printf("parse: %d us/op, cache: %d us/op%n", (t2 - t1) / 200_000, (t3 - t2) / 200_000);
+            }
+            System.out.println(cache.stats());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.JsonPatchException;
+import dev.scx.node.Node;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonPatchTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws Exception {
+        test1();
+        test2();
+        test3();
+        test4();
+        test5();
+        test6();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException, IOException {
+        var source = """
+            {"a": "b", "c": {"d": "e", "f": "g"}, "big": [1.10, 2, 3]}""";
+        var patch = """
+            {"a": "z", "c": {"f": null, "h": {"i": null, "j": 1}}}""";
+        var out = new ByteArrayOutputStream();
+        jsonNodeConverter.mergePatch(new ByteArrayInputStream(source.getBytes(UTF_8)), out, parse(patch), new JsonNodeConvertOptions());
+        Assert.assertEquals(out.toString(UTF_8), "{\"a\":\"z\",\"c\":{\"d\":\"e\",\"h\":{\"j\":1}},\"big\":[1.10,2,3]}");
+    }
+
+    @Test
+    public static void test2() throws FormatToNodeException, NodeToFormatException, JsonPatchException, IOException {
+        var source = """
+            {"status": "old", "items": [1, 2, 3], "meta": {"v": 1}, "keep": [1.10]}""";
+        var patch = """
+            [
+              {"op": "test", "path": "/meta/v", "value": 1.0},
+              {"op": "replace", "path": "/status", "value": "new"},
+              {"op": "remove", "path": "/items/0"},
+              {"op": "add", "path": "/items/-", "value": 4},
+              {"op": "copy", "from": "/meta/v", "path": "/meta/w"},
+              {"op": "add", "path": "/extra", "value": true}
+            ]""";
+        var out = new ByteArrayOutputStream();
+        jsonNodeConverter.jsonPatch(new ByteArrayInputStream(source.getBytes(UTF_8)), out, parse(patch), new JsonNodeConvertOptions());
+        Assert.assertEquals(out.toString(UTF_8), "{\"status\":\"new\",\"items\":[2,3,4],\"meta\":{\"v\":1,\"w\":1},\"keep\":[1.10],\"extra\":true}");
+    }
+
+    @Test
+    public static void test3() throws FormatToNodeException {
+        var source = """
+            {"a": {"b": 1}}""";
+        var patch = """
+            [{"op": "remove", "path": "/a/c"}]""";
+        Assert.assertThrows(JsonPatchException.class, () -> jsonNodeConverter.jsonPatch(new ByteArrayInputStream(source.getBytes(UTF_8)), new ByteArrayOutputStream(), parse(patch), new JsonNodeConvertOptions()));
+    }
+
+    @Test
+    public static void test4() throws FormatToNodeException, NodeToFormatException, JsonPatchException, IOException {
+        // 开启 internSubtrees 时 源文档中相同的子树也不能被一起修改 (两个操作的锚点合并为根, 整体物化)
+        var source = """
+            [{"k": 1}, {"k": 1}]""";
+        var patch = """
+            [
+              {"op": "add", "path": "/0", "value": 0},
+              {"op": "add", "path": "/1/x", "value": 1}
+            ]""";
+        var out = new ByteArrayOutputStream();
+        jsonNodeConverter.jsonPatch(new ByteArrayInputStream(source.getBytes(UTF_8)), out, parse(patch), new JsonNodeConvertOptions().internSubtrees(true));
+        Assert.assertEquals(out.toString(UTF_8), "[0,{\"k\":1,\"x\":1},{\"k\":1}]");
+    }
+
+    @Test
+    public static void test5() throws FormatToNodeException, NodeToFormatException, JsonPatchException, IOException {
+        // 同一组操作应用到多个文档, 插入的值不能被之后的操作修改
+        var patch = parse("[{\"op\": \"add\", \"path\": \"/a\", \"value\": []}, {\"op\": \"add\", \"path\": \"/a/-\", \"value\": 1}]");
+        for (int i = 0; i < 2; i++) {
+            var out = new ByteArrayOutputStream();
+            jsonNodeConverter.jsonPatch(new ByteArrayInputStream("{}".getBytes(UTF_8)), out, patch, new JsonNodeConvertOptions());
+            Assert.assertEquals(out.toString(UTF_8), "{\"a\":[1]}");
+        }
+        Assert.assertEquals(jsonNodeConverter.nodeToFormatString(patch, new JsonNodeConvertOptions()), "[{\"op\":\"add\",\"path\":\"/a\",\"value\":[]},{\"op\":\"add\",\"path\":\"/a/-\",\"value\":1}]");
+    }
+
+    @Test
+    public static void test6() throws FormatToNodeException {
+        // 违反读取限制 (以及输入流的 IO 错误) 属于读取端, 为 FormatToNodeException
+        var source = "{\"a\": {\"b\": [1]}}".getBytes(UTF_8);
+        var options = new JsonNodeConvertOptions().maxNestingDepth(2);
+        var mergePatch = parse("{\"c\": 1}");
+        var jsonPatch = parse("[{\"op\": \"add\", \"path\": \"/c\", \"value\": 1}]");
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.mergePatch(new ByteArrayInputStream(source), new ByteArrayOutputStream(), mergePatch, options));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.jsonPatch(new ByteArrayInputStream(source), new ByteArrayOutputStream(), jsonPatch, options));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.mergePatch(new JsonRewriteTest.FailingInputStream(source), new ByteArrayOutputStream(), mergePatch, new JsonNodeConvertOptions()));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.jsonPatch(new JsonRewriteTest.FailingInputStream(source), new ByteArrayOutputStream(), jsonPatch, new JsonNodeConvertOptions()));
+        Assert.assertThrows(NodeToFormatException.class, () -> jsonNodeConverter.jsonPatch(new ByteArrayInputStream(source), new JsonRewriteTest.FailingOutputStream(), jsonPatch, new JsonNodeConvertOptions()));
+    }
+
+    private static Node parse(String json) throws FormatToNodeException {
+        return jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions());
+    }
+
+}
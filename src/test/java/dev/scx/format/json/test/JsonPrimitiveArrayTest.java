@@ -0,0 +1,93 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonPrimitiveArrayTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+    private static final JsonNodeConvertOptions options = new JsonNodeConvertOptions();
+
+    public static void main(String[] args) throws Exception {
+        test1();
+        test2();
+        test3();
+        test4();
+    }
+
+    /// 根数组 和 pointer 指向的数组 (途经的其他值被跳过)
+    @Test
+    public static void test1() throws FormatToNodeException, IOException {
+        Assert.assertEquals(jsonNodeConverter.formatToDoubleArray(bytes("[1, 2.5, -3e2]"), "", options), new double[]{1, 2.5, -300});
+        Assert.assertEquals(jsonNodeConverter.formatToIntArray(bytes("[]"), "", options), new int[0]);
+        var json = """
+            {"skip": {"values": [9, 9]}, "data": [{"x": [0]}, {"values": [1, 2, 3]}], "tail": [}""";
+        // 读取到目标数组后立即返回, 不校验剩余内容
+        Assert.assertEquals(jsonNodeConverter.formatToLongArray(bytes(json), "/data/1/values", options), new long[]{1, 2, 3});
+        Assert.assertEquals(jsonNodeConverter.formatToIntArray(new ByteArrayInputStream(bytes(json)), "/skip/values", options), new int[]{9, 9});
+        // 超过初始容量
+        var sb = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i > 0 ? "," : "").append(i);
+        }
+        var ints = jsonNodeConverter.formatToIntArray(bytes(sb.append(']').toString()), "", options);
+        Assert.assertEquals(ints.length, 1000);
+        Assert.assertEquals(ints[999], 999);
+    }
+
+    /// 路径不存在, 不是数组, 非数字元素, 根数组后的多余内容
+    @Test
+    public static void test2() {
+        assertFails("{\"a\": [1]}", "/b");
+        assertFails("{\"a\": [1]}", "/a/0");
+        assertFails("[[1], [2]]", "/2");
+        assertFails("{\"a\": 1}", "/a");
+        assertFails("[1, \"2\"]", "");
+        assertFails("[1, null]", "");
+        assertFails("[1, 2] [3]", "");
+        assertFails("[1, 2", "");
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToLongArray(bytes("[1.5]"), "", options));
+    }
+
+    /// 整数溢出 和 格式错误的 pointer
+    @Test
+    public static void test3() {
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToIntArray(bytes("[2147483648]"), "", options));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToLongArray(bytes("[9223372036854775808]"), "", options));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToDoubleArray(bytes("[1]"), "no-leading-slash", options));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToIntArray(new ByteArrayInputStream(bytes("[1]")), "a", options));
+    }
+
+    /// 写出后再读取
+    @Test
+    public static void test4() throws FormatToNodeException, NodeToFormatException, IOException {
+        var doubles = new double[]{0, -0.5, 1e300, Double.MIN_VALUE, 123.456};
+        Assert.assertEquals(jsonNodeConverter.formatToDoubleArray(jsonNodeConverter.arrayToFormatBytes(doubles, options), "", options), doubles);
+        var longs = new long[]{Long.MIN_VALUE, -1, 0, Long.MAX_VALUE};
+        Assert.assertEquals(jsonNodeConverter.formatToLongArray(jsonNodeConverter.arrayToFormatBytes(longs, options), "", options), longs);
+        var ints = new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE};
+        var out = new ByteArrayOutputStream();
+        jsonNodeConverter.arrayToFormat(ints, out, options);
+        Assert.assertEquals(out.toString(UTF_8), "[-2147483648,0,2147483647]");
+        Assert.assertEquals(jsonNodeConverter.formatToIntArray(out.toByteArray(), "", options), ints);
+    }
+
+    private static void assertFails(String json, String pointer) {
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToDoubleArray(bytes(json), pointer, options));
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(UTF_8);
+    }
+
+}
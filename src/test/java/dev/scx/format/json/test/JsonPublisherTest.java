@@ -0,0 +1,156 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static dev.scx.format.json.test.JsonTestData.json;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonPublisherTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException {
+        test1();
+        test2();
+        test3();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        var node = jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions());
+        for (var options : new JsonNodeConvertOptions[]{new JsonNodeConvertOptions(), new JsonNodeConvertOptions().prettyPrint(true), new JsonNodeConvertOptions().canonical(true)}) {
+            var expected = jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options);
+            var output = new ByteArrayOutputStream();
+            var completed = new boolean[1];
+            var subscription = new Flow.Subscription[1];
+            jsonNodeConverter.nodeToFormatPublisher(node, 64, options).subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription s) {
+                    subscription[0] = s;
+                }
+
+                @Override
+                public void onNext(ByteBuffer item) {
+                    Assert.assertTrue(item.remaining() <= 64);
+                    output.write(item.array(), item.position(), item.remaining());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    Assert.fail("", throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    completed[0] = true;
+                }
+            });
+            // 未 request 时 不产生任何输出
+            Assert.assertEquals(output.size(), 0);
+            subscription[0].request(1);
+            Assert.assertEquals(output.size(), 64);
+            while (!completed[0]) {
+                subscription[0].request(1);
+            }
+            Assert.assertEquals(output.toByteArray(), expected);
+        }
+    }
+
+    /// cancel 之后 以及 request(0) 之后 不再有任何信号
+    @Test
+    public static void test2() throws FormatToNodeException {
+        var node = jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions());
+
+        var cancelled = new RecordingSubscriber(false);
+        jsonNodeConverter.nodeToFormatPublisher(node, 64, new JsonNodeConvertOptions()).subscribe(cancelled);
+        cancelled.subscription.request(2);
+        cancelled.subscription.cancel();
+        cancelled.subscription.request(10);
+        Assert.assertEquals(cancelled.items, 2);
+        Assert.assertTrue(cancelled.errors.isEmpty());
+        Assert.assertEquals(cancelled.completed, 0);
+
+        var invalid = new RecordingSubscriber(false);
+        jsonNodeConverter.nodeToFormatPublisher(node, 64, new JsonNodeConvertOptions()).subscribe(invalid);
+        invalid.subscription.request(1);
+        invalid.subscription.request(0);
+        invalid.subscription.request(10);
+        Assert.assertEquals(invalid.items, 1);
+        Assert.assertEquals(invalid.errors.size(), 1);
+        Assert.assertTrue(invalid.errors.getFirst() instanceof IllegalArgumentException);
+        Assert.assertEquals(invalid.completed, 0);
+    }
+
+    /// 第二个订阅者被拒绝; onNext 抛出异常时 终止订阅并发出 onError, 之后的 request 不再回调
+    @Test
+    public static void test3() throws FormatToNodeException {
+        var node = jsonNodeConverter.formatToNode(json, new JsonNodeConvertOptions());
+        var publisher = jsonNodeConverter.nodeToFormatPublisher(node, 64, new JsonNodeConvertOptions());
+
+        var first = new RecordingSubscriber(true);
+        publisher.subscribe(first);
+        var second = new RecordingSubscriber(false);
+        publisher.subscribe(second);
+        Assert.assertEquals(second.errors.size(), 1);
+        Assert.assertTrue(second.errors.getFirst() instanceof IllegalStateException);
+
+        first.subscription.request(5);
+        Assert.assertEquals(first.items, 1);
+        Assert.assertEquals(first.errors.size(), 1);
+        Assert.assertTrue(first.errors.getFirst() instanceof IllegalStateException);
+        first.subscription.request(5);
+        first.subscription.cancel();
+        Assert.assertEquals(first.items, 1);
+        Assert.assertEquals(first.errors.size(), 1);
+        Assert.assertEquals(first.completed, 0);
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+        private final boolean throwOnNext;
+        private final List<Throwable> errors = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private int items;
+        private int completed;
+
+        private RecordingSubscriber(boolean throwOnNext) {
+            this.throwOnNext = throwOnNext;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            items++;
+            if (throwOnNext) {
+                throw new IllegalStateException("onNext failed");
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            errors.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed++;
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.JsonRewriteRules;
+import dev.scx.node.StringNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonRewriteTest {
+
+    private final static String json = """
+        {
+          "user": {"name": "小明", "password": "123456", "token": {"a": [1, 2]}},
+          "internal": {"trace": [1, 2, 3]},
+          "old_name": [1.10, {"x": 1}],
+          "title": "hello"
+        }
+        """;
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException {
+        test1();
+        test2();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        var rules = new JsonRewriteRules()
+            .mask("password")
+            .mask("token", "***")
+            .drop("internal")
+            .rename("old_name", "new_name")
+            .transform("title", n -> new StringNode(((StringNode) n).value().toUpperCase()));
+
+        var bytes = jsonNodeConverter.rewriteBytes(json.getBytes(UTF_8), rules, new JsonNodeConvertOptions());
+
+        Assert.assertEquals(new String(bytes, UTF_8),
+            "{\"user\":{\"name\":\"小明\",\"password\":\"******\",\"token\":\"***\"},\"new_name\":[1.10,{\"x\":1}],\"title\":\"HELLO\"}");
+    }
+
+    /// 读取端的错误 (读取限制, 输入流的 IO 错误) 为 FormatToNodeException, 写出端的错误为 NodeToFormatException
+    @Test
+    public static void test2() {
+        var rules = new JsonRewriteRules().mask("password");
+        var bytes = json.getBytes(UTF_8);
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.rewriteBytes(bytes, rules, new JsonNodeConvertOptions().maxNestingDepth(1)));
+        var longString = ("{\"a\":\"" + "x".repeat(100_000) + "\"}").getBytes(UTF_8);
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.rewriteBytes(longString, rules, new JsonNodeConvertOptions().maxStringLength(1000)));
+        Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.rewrite(new FailingInputStream(bytes), new ByteArrayOutputStream(), rules, new JsonNodeConvertOptions()));
+        Assert.assertThrows(NodeToFormatException.class, () -> jsonNodeConverter.rewrite(new ByteArrayInputStream(bytes), new FailingOutputStream(), rules, new JsonNodeConvertOptions()));
+    }
+
+    /// 读完前 16 个字节后失败
+    static final class FailingInputStream extends InputStream {
+
+        private final InputStream in;
+        private int remaining = 16;
+
+        FailingInputStream(byte[] bytes) {
+            this.in = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining-- <= 0) {
+                throw new IOException("read failed");
+            }
+            return in.read();
+        }
+
+    }
+
+    static final class FailingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            throw new IOException("write failed");
+        }
+
+    }
+
+}
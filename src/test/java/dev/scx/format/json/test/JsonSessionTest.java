@@ -0,0 +1,68 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static dev.scx.format.json.test.JsonTestData.json;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonSessionTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException, IOException {
+        test1();
+        test2();
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        var options = new JsonNodeConvertOptions();
+        var session = jsonNodeConverter.newSession(options);
+        var expected = jsonNodeConverter.nodeToFormatString(jsonNodeConverter.formatToNode(json, options), options);
+
+        for (int i = 0; i < 100; i++) {
+            var node = session.formatToNode(json.getBytes(UTF_8));
+            Assert.assertEquals(new String(session.nodeToFormatBytes(node), UTF_8), expected);
+            Assert.assertEquals(session.nodeToFormatString(session.formatToNode(expected)), expected);
+        }
+        session.reset();
+        Assert.assertEquals(session.nodeToFormatString(session.formatToNode(json)), expected);
+    }
+
+    /// 会话与 converter 一样遵循 gzip 和 detectGzip, 并在每次调用时读取
+    @Test
+    public static void test2() throws FormatToNodeException, NodeToFormatException, IOException {
+        var options = new JsonNodeConvertOptions();
+        var expected = jsonNodeConverter.nodeToFormatString(jsonNodeConverter.formatToNode(json, options), options);
+        var gzipBytes = jsonNodeConverter.nodeToFormatBytes(jsonNodeConverter.formatToNode(json, options), UTF_8, new JsonNodeConvertOptions().gzip(true));
+        var session = jsonNodeConverter.newSession(options);
+
+        for (int i = 0; i < 10; i++) {
+            var node = session.formatToNode(gzipBytes);
+            Assert.assertEquals(session.nodeToFormatString(node), expected);
+            Assert.assertEquals(new String(session.nodeToFormatBytes(node), UTF_8), expected);
+        }
+
+        options.gzip(true);
+        var node = session.formatToNode(json.getBytes(UTF_8));
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(session.nodeToFormatBytes(node)))) {
+            Assert.assertEquals(new String(in.readAllBytes(), UTF_8), expected);
+        }
+        // 字符串输出不压缩
+        Assert.assertEquals(session.nodeToFormatString(node), expected);
+
+        // 关闭 detectGzip 后 压缩的输入按 JSON 解析失败
+        options.detectGzip(false);
+        Assert.expectThrows(FormatToNodeException.class, () -> session.formatToNode(gzipBytes));
+    }
+
+}
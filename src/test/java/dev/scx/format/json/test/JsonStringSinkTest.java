@@ -0,0 +1,171 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.JsonStringSink;
+import dev.scx.format.json.SpillFileStringSink;
+import dev.scx.node.ArrayNode;
+import dev.scx.node.Node;
+import dev.scx.node.ObjectNode;
+import dev.scx.node.StringNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonStringSinkTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws Exception {
+        test1();
+        test2();
+        test3();
+    }
+
+    /// 按长度阈值 和 按路径
+    @Test
+    public static void test1() throws IOException, FormatToNodeException {
+        var directory = Files.createTempDirectory("scx-json-sink");
+        try {
+            var options = new JsonNodeConvertOptions()
+                .stringSink(new SpillFileStringSink(directory))
+                .stringSinkThreshold(8)
+                .stringSinkPaths(Set.of("/b/0"));
+            var json = "{\"a\":\"0123456789\",\"s\":\"short\",\"b\":[\"x\",\"y\"],\"c\":\"中文字符串也会写入文件\"}";
+            var node = (ObjectNode) jsonNodeConverter.formatToNode(json.getBytes(UTF_8), UTF_8, options);
+            Assert.assertEquals(readSpillFile(node.get("a")), "0123456789");
+            Assert.assertEquals(((StringNode) node.get("s")).value(), "short");
+            var b = (ArrayNode) node.get("b");
+            Assert.assertEquals(readSpillFile(b.get(0)), "x");
+            Assert.assertEquals(((StringNode) b.get(1)).value(), "y");
+            Assert.assertEquals(readSpillFile(node.get("c")), "中文字符串也会写入文件");
+            try (var files = Files.list(directory)) {
+                Assert.assertEquals(files.count(), 3);
+            }
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /// 同一个接收器被多个线程同时使用
+    @Test
+    public static void test2() throws Exception {
+        var directory = Files.createTempDirectory("scx-json-sink");
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            var options = new JsonNodeConvertOptions()
+                .stringSink(new SpillFileStringSink(directory))
+                .stringSinkThreshold(16);
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int i = 0; i < 8; i++) {
+                var value = ("value-" + i + "-").repeat(2000);
+                tasks.add(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        var node = (ObjectNode) jsonNodeConverter.formatToNode(("{\"v\":\"" + value + "\"}").getBytes(UTF_8), UTF_8, options);
+                        Assert.assertEquals(readSpillFile(node.get("v")), value);
+                    }
+                    return null;
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /// writer 写出中途失败时 调用 abort, 不留下溢出文件.
+    /// (字符串本身的错误 在 open 之前就已由 getStringLength 检出, 因此只有 writer 的错误会走到 abort)
+    @Test
+    public static void test3() throws IOException {
+        var directory = Files.createTempDirectory("scx-json-sink");
+        try {
+            var sink = new FailingStringSink(new SpillFileStringSink(directory));
+            var options = new JsonNodeConvertOptions()
+                .stringSink(sink)
+                .stringSinkPaths(Set.of("/a"));
+            var json = "{\"a\":\"" + "x".repeat(100_000) + "\"}";
+            Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.formatToNode(json.getBytes(UTF_8), UTF_8, options));
+            Assert.assertEquals(sink.opened, 1);
+            Assert.assertEquals(sink.aborted, 1);
+            try (var files = Files.list(directory)) {
+                Assert.assertEquals(files.count(), 0);
+            }
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private static String readSpillFile(Node node) throws IOException {
+        return Files.readString(Path.of(((StringNode) node).value()), UTF_8);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /// writer 在写出时抛出异常, abort 时交给被包装的接收器清理
+    private static final class FailingStringSink implements JsonStringSink {
+
+        private final JsonStringSink delegate;
+        private Writer delegateWriter;
+        private int opened;
+        private int aborted;
+
+        private FailingStringSink(JsonStringSink delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Writer open(String path) throws IOException {
+            opened++;
+            delegateWriter = delegate.open(path);
+            return new FilterWriter(delegateWriter) {
+                @Override
+                public void write(int c) throws IOException {
+                    throw new IOException("disk full");
+                }
+
+                @Override
+                public void write(char[] cbuf, int off, int len) throws IOException {
+                    throw new IOException("disk full");
+                }
+
+                @Override
+                public void write(String str, int off, int len) throws IOException {
+                    throw new IOException("disk full");
+                }
+            };
+        }
+
+        @Override
+        public Node close(String path, Writer writer, long length) throws IOException {
+            return delegate.close(path, delegateWriter, length);
+        }
+
+        @Override
+        public void abort(String path, Writer writer) {
+            aborted++;
+            delegate.abort(path, delegateWriter);
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.json.DuplicateFieldPolicy;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.JsonParseErrorKind;
+import dev.scx.format.json.JsonParseResult;
+import dev.scx.node.IntNode;
+import dev.scx.node.ObjectNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonTryParseTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) {
+        test1();
+        benchmark();
+    }
+
+    @Test
+    public static void test1() {
+        var options = new JsonNodeConvertOptions();
+        var ok = jsonNodeConverter.tryFormatToNode("\uFEFF{\"a\":1}".getBytes(UTF_8), options);
+        Assert.assertTrue(ok.isSuccess());
+        Assert.assertEquals(((IntNode) ((ObjectNode) ok.node()).get("a")).value(), 1);
+
+        assertError("{\"a\":1,\n \"b\":x}", JsonParseErrorKind.SYNTAX, 2, 6);
+        assertError("{\"a\":[1,2", JsonParseErrorKind.UNEXPECTED_EOF, 1, 10);
+        assertError("", JsonParseErrorKind.UNEXPECTED_EOF, 1, 1);
+        assertError("{} {}", JsonParseErrorKind.SYNTAX, 1, 5);
+
+        var duplicate = jsonNodeConverter.tryFormatToNode("{\"a\":1,\"a\":2}", new JsonNodeConvertOptions().duplicateFieldPolicy(DuplicateFieldPolicy.THROW));
+        Assert.assertEquals(duplicate.error().kind(), JsonParseErrorKind.DUPLICATE_FIELD);
+        var limit = jsonNodeConverter.tryFormatToNode("[[[1]]]", new JsonNodeConvertOptions().maxNestingDepth(2));
+        Assert.assertEquals(limit.error().kind(), JsonParseErrorKind.LIMIT_EXCEEDED);
+
+        // UTF-16 输入走普通路径, 结果相同
+        var utf16 = jsonNodeConverter.tryFormatToNode("{\"a\":[1,2".getBytes(UTF_16LE), options);
+        Assert.assertEquals(utf16.error().kind(), JsonParseErrorKind.UNEXPECTED_EOF);
+    }
+
+    private static void assertError(String json, JsonParseErrorKind kind, int line, int column) {
+        var options = new JsonNodeConvertOptions();
+        for (var result : new JsonParseResult[]{jsonNodeConverter.tryFormatToNode(json.getBytes(UTF_8), options), jsonNodeConverter.tryFormatToNode(json, options)}) {
+            Assert.assertFalse(result.isSuccess());
+            Assert.assertNull(result.node());
+            var error = result.error();
+            Assert.assertEquals(error.kind(), kind, error.message());
+            Assert.assertEquals(error.line(), line, error.message());
+            Assert.assertEquals(error.column(), column, error.message());
+            Assert.assertTrue(error.offset() >= 0);
+        }
+    }
+
+    public static void benchmark() {
+        var options = new JsonNodeConvertOptions().includeSourceInLocation(false);
+        var valid = "{\"id\":1,\"name\":\"abc\",\"tags\":[1,2,3]}".getBytes(UTF_8);
+        var invalid = "{\"id\":1,\"name\":\"abc\",\"tags\":[1,2,x]}".getBytes(UTF_8);
+        var n = 200_000;
+        for (int round = 0; round < 5; round++) {
+            var t1 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                jsonNodeConverter.tryFormatToNode(valid, options);
+            }
+            var t2 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                try {
+                    jsonNodeConverter.formatToNode(invalid, UTF_8, options);
+                } catch (FormatToNodeException _) {
+                    // 拒绝
+                }
+            }
+            var t3 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                jsonNodeConverter.tryFormatToNode(invalid, options);
+            }
+            var t4 = System.nanoTime();
+            System.out.printf("accept: %d ns/op, reject (exception): %d ns/op, reject (tryFormatToNode): %d ns/op%n",
+                (t2 - t1) / n, (t3 - t2) / n, (t4 - t3) / n);
+        }
+    }
+
+}
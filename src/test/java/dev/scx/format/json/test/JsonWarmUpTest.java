@@ -0,0 +1,72 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.node.ObjectNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class JsonWarmUpTest {
+
+    /// 传入 "cold" 时不预热, 用于对比 (需要分别在新的 JVM 中运行)
+    public static void main(String[] args) throws FormatToNodeException, NodeToFormatException {
+        test1();
+        firstRequests(args.length == 0 || !args[0].equals("cold"));
+    }
+
+    @Test
+    public static void test1() throws FormatToNodeException, NodeToFormatException {
+        var jsonNodeConverter = new JsonNodeConverter();
+        var options = new JsonNodeConvertOptions();
+        jsonNodeConverter.warmUp(List.of("userId", "orderId", "createdAt"), List.of(_document(0)), 10, options);
+
+        // 字符符号表在多次转换之间共享, 字段名只会创建一次
+        var a = (ObjectNode) jsonNodeConverter.formatToNode("{\"userId\":1}", options);
+        var b = (ObjectNode) jsonNodeConverter.formatToNode("{\"userId\":2}", options);
+        Assert.assertSame(a.iterator().next().getKey(), b.iterator().next().getKey());
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> jsonNodeConverter.warmUp(IntStream.range(0, 6001).mapToObj(i -> "k" + i).toList(), List.of(), 0, options));
+    }
+
+    private static byte[] _document(int i) {
+        return ("{\"userId\":" + i + ",\"orderId\":\"o-" + i + "\",\"createdAt\":1700000000000,\"amount\":12.5," +
+            "\"items\":[{\"sku\":\"a\",\"count\":1},{\"sku\":\"b\",\"count\":2}],\"paid\":true,\"note\":null}").getBytes(UTF_8);
+    }
+
+    /// 前 N 个请求的延迟
+    public static void firstRequests(boolean warmUp) throws FormatToNodeException, NodeToFormatException {
+        var jsonNodeConverter = new JsonNodeConverter();
+        var options = new JsonNodeConvertOptions();
+        var t0 = System.nanoTime();
+        if (warmUp) {
+            jsonNodeConverter.warmUp(List.of("userId", "orderId", "createdAt", "amount", "items", "sku", "count", "paid", "note"), List.of(_document(0)), 20000, options);
+        }
+        var t1 = System.nanoTime();
+        var n = 5000;
+        var latencies = new long[n];
+        for (int i = 0; i < n; i++) {
+            var start = System.nanoTime();
+            var node = jsonNodeConverter.formatToNode(_document(i), UTF_8, options);
+            jsonNodeConverter.nodeToFormatBytes(node, UTF_8, options);
+            latencies[i] = System.nanoTime() - start;
+        }
+        var first100 = 0L;
+        var total = 0L;
+        for (int i = 0; i < n; i++) {
+            total += latencies[i];
+            if (i < 100) {
+                first100 += latencies[i];
+            }
+        }
+        System.out.printf("warmUp: %s (%d ms), first request: %d us, first 100: %d us, first %d: %d us%n",
+            warmUp, (t1 - t0) / 1_000_000, latencies[0] / 1000, first100 / 1000, n, total / 1000);
+    }
+
+}
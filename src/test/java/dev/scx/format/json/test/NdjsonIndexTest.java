@@ -0,0 +1,192 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.NdjsonIndex;
+import dev.scx.node.IntNode;
+import dev.scx.node.Node;
+import dev.scx.node.ObjectNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+
+public class NdjsonIndexTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+
+    public static void main(String[] args) throws IOException, FormatToNodeException, InterruptedException {
+        test1();
+        test2();
+        test3();
+        test4();
+    }
+
+    @Test
+    public static void test1() throws IOException, FormatToNodeException {
+        var dir = Files.createTempDirectory("ndjson");
+        var file = dir.resolve("data.ndjson");
+        var sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("{\"id\":").append(i).append(",\"name\":\"小明-").append(i).append("\"}");
+            // 混合 CRLF 和空行
+            sb.append(i % 7 == 0 ? "\r\n" : "\n");
+            if (i % 100 == 0) {
+                sb.append("\n");
+            }
+        }
+        // 未写完的一行
+        sb.append("{\"id\":1000");
+        Files.writeString(file, sb, UTF_8);
+
+        var options = new JsonNodeConvertOptions();
+        try (var index = NdjsonIndex.open(file)) {
+            Assert.assertEquals(index.recordCount(), 1000);
+            Assert.assertEquals(id(jsonNodeConverter.ndjsonRecordToNode(index, 0, options)), 0);
+            Assert.assertEquals(id(jsonNodeConverter.ndjsonRecordToNode(index, 999, options)), 999);
+            var nodes = jsonNodeConverter.ndjsonRecordsToNodes(index, 95, 10, options);
+            for (int i = 0; i < nodes.size(); i++) {
+                Assert.assertEquals(id(nodes.get(i)), 95 + i);
+            }
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> index.recordStart(1000));
+
+            // 补全最后一行并继续追加
+            Files.writeString(file, "}\n{\"id\":1001}\n", UTF_8, APPEND);
+            Assert.assertEquals(index.update(), 1002);
+            Assert.assertEquals(id(jsonNodeConverter.ndjsonRecordToNode(index, 1000, options)), 1000);
+            Assert.assertEquals(id(jsonNodeConverter.ndjsonRecordToNode(index, 1001, options)), 1001);
+        }
+
+        // 重新打开时 直接使用已保存的索引
+        try (var index = NdjsonIndex.open(file)) {
+            Assert.assertEquals(index.recordCount(), 1002);
+            Assert.assertEquals(id(jsonNodeConverter.ndjsonRecordToNode(index, 500, options)), 500);
+            // 索引文件与平台字节序无关 (小端, 24 字节头部之后为各记录的起始偏移)
+            var indexFile = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("data.ndjson.idx"))).order(ByteOrder.LITTLE_ENDIAN);
+            for (var i : new int[]{0, 1, 500, 1001}) {
+                Assert.assertEquals(indexFile.getLong(24 + i * 8), index.recordStart(i));
+            }
+        }
+
+        // 文件被替换为更短的内容时 重建索引
+        Files.writeString(file, "{\"id\":7}\n", UTF_8);
+        try (var index = NdjsonIndex.open(file)) {
+            Assert.assertEquals(index.recordCount(), 1);
+            Assert.assertEquals(id(jsonNodeConverter.ndjsonRecordToNode(index, 0, options)), 7);
+        }
+        Files.delete(file);
+        Files.delete(Path.of(file + ".idx"));
+        Files.delete(dir);
+    }
+
+    private static int id(Node node) {
+        return ((IntNode) ((ObjectNode) node).get("id")).value();
+    }
+
+    @Test
+    public static void test2() throws IOException, FormatToNodeException {
+        var sb = new StringBuilder();
+        var count = 50000;
+        for (int i = 0; i < count; i++) {
+            sb.append("{\"id\":").append(i).append(",\"tags\":[\"a\",\"b\",\"c\"],\"text\":\"").append("x".repeat(i % 50)).append("\"}\n");
+        }
+        var bytes = sb.toString().getBytes(UTF_8);
+        var file = Files.createTempFile("ndjson", ".ndjson");
+        Files.write(file, bytes);
+        var options = new JsonNodeConvertOptions();
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            // 有序
+            var ids = new ArrayList<Integer>();
+            jsonNodeConverter.ndjsonToNodes(file, executor, true, node -> ids.add(id(node)), options);
+            Assert.assertEquals(ids.size(), count);
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals((int) ids.get(i), i);
+            }
+            // 无序
+            var seen = new ConcurrentLinkedQueue<Integer>();
+            jsonNodeConverter.ndjsonToNodes(bytes, 0, bytes.length, executor, false, node -> seen.add(id(node)), options);
+            Assert.assertEquals(seen.size(), count);
+            Assert.assertEquals(seen.stream().mapToLong(i -> i).sum(), (long) count * (count - 1) / 2);
+            // 错误会传播到调用方
+            var broken = (sb + "{\"id\":\n").getBytes(UTF_8);
+            Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.ndjsonToNodes(broken, 0, broken.length, executor, true, _ -> {}, options));
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    /// 无序模式下 某个块失败后, 调用方等待其他块结束才抛出异常, 之后不再回调 consumer
+    @Test
+    public static void test3() throws InterruptedException {
+        var sb = new StringBuilder("{\"id\":\n");
+        for (int i = 0; i < 200000; i++) {
+            sb.append("{\"id\":").append(i).append(",\"text\":\"").append("x".repeat(20)).append("\"}\n");
+        }
+        var bytes = sb.toString().getBytes(UTF_8);
+        var options = new JsonNodeConvertOptions();
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var count = new AtomicLong();
+            // 正在执行的 consumer 回调
+            var active = new AtomicLong();
+            // consumer 较慢, 其他块在第一个块失败时 仍在运行
+            Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.ndjsonToNodes(bytes, 0, bytes.length, executor, false, _ -> {
+                active.incrementAndGet();
+                count.incrementAndGet();
+                LockSupport.parkNanos(10_000_000);
+                active.decrementAndGet();
+            }, options));
+            Assert.assertEquals(active.get(), 0);
+            var seen = count.get();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+            Assert.assertEquals(count.get(), seen);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /// maxDocumentLength 和 maxTokenCount 作用于单条记录, 而非整个块
+    @Test
+    public static void test4() throws FormatToNodeException {
+        var sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append("{\"id\":").append(i).append(",\"tags\":[\"a\",\"b\"]}\n");
+            if (i % 1000 == 0) {
+                sb.append(" \r\n");
+            }
+        }
+        var bytes = sb.toString().getBytes(UTF_8);
+        var options = new JsonNodeConvertOptions().maxDocumentLength(100).maxTokenCount(20);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            for (var ordered : new boolean[]{true, false}) {
+                var count = new AtomicLong();
+                jsonNodeConverter.ndjsonToNodes(bytes, 0, bytes.length, executor, ordered, _ -> count.incrementAndGet(), options);
+                Assert.assertEquals(count.get(), 100000);
+            }
+            // 单条记录超过限制时 仍然失败
+            var large = (sb + "[" + "1,".repeat(30) + "1]\n").getBytes(UTF_8);
+            Assert.assertThrows(FormatToNodeException.class, () -> jsonNodeConverter.ndjsonToNodes(large, 0, large.length, executor, true, _ -> {}, options));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package dev.scx.format.json.test;
+
+import dev.scx.format.FormatToNodeException;
+import dev.scx.format.NodeToFormatException;
+import dev.scx.format.json.JsonNodeConvertOptions;
+import dev.scx.format.json.JsonNodeConverter;
+import dev.scx.format.json.NodeSnapshotConverter;
+import dev.scx.node.*;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class NodeSnapshotTest {
+
+    private static final JsonNodeConverter jsonNodeConverter = new JsonNodeConverter();
+    private static final NodeSnapshotConverter nodeSnapshotConverter = new NodeSnapshotConverter();
+
+    public static void main(String[] args) throws Exception {
+        test1();
+        test2();
+        benchmark();
+    }
+
+    @Test
+    public static void test1() throws IOException {
+        var node = new ObjectNode();
+        node.put("int", new IntNode(-123));
+        node.put("long", new LongNode(Long.MIN_VALUE));
+        node.put("float", new FloatNode(Float.NaN));
+        node.put("double", new DoubleNode(-0.0));
+        node.put("bigInteger", new BigIntegerNode(new BigInteger("-123456789012345678901234567890")));
+        node.put("bigDecimal", new BigDecimalNode(new BigDecimal("1.2300")));
+        node.put("string", new StringNode("小明🚀 \uD800"));
+        var array = new ArrayNode();
+        array.add(BooleanNode.TRUE);
+        array.add(BooleanNode.FALSE);
+        array.add(NullNode.NULL);
+        array.add(new ArrayNode());
+        array.add(new ObjectNode());
+        node.put("array", array);
+
+        var result = (ObjectNode) nodeSnapshotConverter.snapshotToNode(nodeSnapshotConverter.nodeToSnapshotBytes(node));
+
+        Assert.assertEquals(((IntNode) result.get("int")).value(), -123);
+        Assert.assertEquals(((LongNode) result.get("long")).value(), Long.MIN_VALUE);
+        Assert.assertTrue(Float.isNaN(((FloatNode) result.get("float")).value()));
+        Assert.assertEquals(Double.doubleToRawLongBits(((DoubleNode) result.get("double")).value()), Double.doubleToRawLongBits(-0.0));
+        Assert.assertEquals(((BigIntegerNode) result.get("bigInteger")).value(), new BigInteger("-123456789012345678901234567890"));
+        Assert.assertEquals(((BigDecimalNode) result.get("bigDecimal")).value().toString(), "1.2300");
+        Assert.assertEquals(((StringNode) result.get("string")).value(), "小明🚀 \uD800");
+        Assert.assertEquals(((ArrayNode) result.get("array")).size(), 5);
+    }
+
+    @Test
+    public static void test2() {
+        Assert.assertThrows(StreamCorruptedException.class, () -> nodeSnapshotConverter.snapshotToNode("{}".getBytes(UTF_8)));
+        var bytes = nodeSnapshotConverter.nodeToSnapshotBytes(new StringNode("abc"));
+        Assert.assertThrows(StreamCorruptedException.class, () -> nodeSnapshotConverter.snapshotToNode(Arrays.copyOf(bytes, bytes.length - 1)));
+        // 长度的 varint 设置了第 63 位 (解码为负数)
+        var negative = new byte[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, 1};
+        var array = nodeSnapshotConverter.nodeToSnapshotBytes(new ArrayNode());
+        Assert.assertThrows(StreamCorruptedException.class, () -> nodeSnapshotConverter.snapshotToNode(replaceLength(array, array.length - 1, 1, negative)));
+        Assert.assertThrows(StreamCorruptedException.class, () -> nodeSnapshotConverter.snapshotToNode(replaceLength(bytes, bytes.length - 4, 1, negative)));
+    }
+
+    /// 将 bytes 中 [offset, offset + length) 的长度字段 替换为 varint
+    private static byte[] replaceLength(byte[] bytes, int offset, int length, byte[] varint) {
+        var result = new byte[bytes.length - length + varint.length];
+        System.arraycopy(bytes, 0, result, 0, offset);
+        System.arraycopy(varint, 0, result, offset, varint.length);
+        System.arraycopy(bytes, offset + length, result, offset + varint.length, bytes.length - offset - length);
+        return result;
+    }
+
+    /// 与 JSON 文本的简单对比 (非严格基准测试)
+    public static void benchmark() throws IOException, FormatToNodeException, NodeToFormatException {
+        var array = new ArrayNode();
+        for (int i = 0; i < 10000; i++) {
+            var item = new ObjectNode();
+            item.put("id", new IntNode(i));
+            item.put("name", new StringNode("name-" + i));
+            item.put("score", new DoubleNode(i * 0.75));
+            item.put("active", i % 2 == 0 ? BooleanNode.TRUE : BooleanNode.FALSE);
+            array.add(item);
+        }
+        var options = new JsonNodeConvertOptions();
+        var json = jsonNodeConverter.nodeToFormatBytes(array, UTF_8, options);
+        var snapshot = nodeSnapshotConverter.nodeToSnapshotBytes(array);
+        System.out.println("json: " + json.length + " bytes, snapshot: " + snapshot.length + " bytes");
+        for (int round = 0; round < 5; round++) {
+            var t0 = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                jsonNodeConverter.nodeToFormatBytes(array, UTF_8, options);
+            }
+            var t1 = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                nodeSnapshotConverter.nodeToSnapshotBytes(array);
+            }
+            var t2 = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                jsonNodeConverter.formatToNode(json, UTF_8, options);
+            }
+            var t3 = System.nanoTime();
+            for (int i = 0; i < 50; i++) {
+                nodeSnapshotConverter.snapshotToNode(snapshot);
+            }
+            var t4 = System.nanoTime();
+            System.out.printf("write json %d ms, snapshot %d ms | read json %d ms, snapshot %d ms%n",
+                (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, (t3 - t2) / 1_000_000, (t4 - t3) / 1_000_000);
+        }
+    }
+
+}